@@ -0,0 +1,134 @@
+package com.b2b.cache;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Small in-process cache with a hard entry limit and per-entry expiry.
+ * Entries are evicted oldest-first once the limit is reached; expired
+ * entries are dropped lazily on read.
+ */
+public class BoundedTtlCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final ConcurrentHashMap<K, Entry<K, V>> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry<K, V>> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedTtlCache(int maxSize, long ttlMillis) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public V get(K key) {
+        Entry<K, V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            if (entries.remove(key, entry)) {
+                evictions.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    public V getOrLoad(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value == null) {
+            value = loader.apply(key);
+            if (value != null) {
+                put(key, value);
+            }
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, System.currentTimeMillis() + ttlMillis);
+    }
+
+    public void put(K key, V value, long expiresAtMillis) {
+        Entry<K, V> entry = new Entry<>(key, value, expiresAtMillis);
+        entries.put(key, entry);
+        insertionOrder.add(entry);
+        queued.incrementAndGet();
+        while (entries.size() > maxSize) {
+            Entry<K, V> oldest = insertionOrder.poll();
+            if (oldest == null) {
+                break;
+            }
+            queued.decrementAndGet();
+            if (entries.remove(oldest.key, oldest)) {
+                evictions.increment();
+            }
+        }
+        // Drop queue slots belonging to overwritten or invalidated entries
+        if (queued.get() > maxSize * 2) {
+            insertionOrder.removeIf(e -> entries.get(e.key) != e);
+            queued.set(insertionOrder.size());
+        }
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+        insertionOrder.clear();
+        queued.set(0);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private static final class Entry<K, V> {
+        private final K key;
+        private final V value;
+        private final long expiresAtMillis;
+
+        private Entry(K key, V value, long expiresAtMillis) {
+            this.key = key;
+            this.value = value;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.b2b.cache;
+
+import com.b2b.dto.response.CacheRegionStatsResponse;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Per-region view of the Hibernate second-level cache (entity regions for
+ * stores and billing accounts plus the query result regions).
+ * Regions and their TTLs are defined in ehcache.xml.
+ */
+@Component
+public class SecondLevelCacheRegions {
+
+    private final SessionFactory sessionFactory;
+
+    @Autowired
+    public SecondLevelCacheRegions(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    /** Empty unless app.cache.statistics-enabled (hibernate.generate_statistics) is on. */
+    public List<CacheRegionStatsResponse> stats() {
+        Statistics statistics = sessionFactory.getStatistics();
+        List<CacheRegionStatsResponse> regions = new ArrayList<>();
+        if (!statistics.isStatisticsEnabled()) {
+            return regions;
+        }
+        String[] names = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(names);
+        for (String name : names) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+            if (region != null) {
+                regions.add(new CacheRegionStatsResponse(name, region));
+            }
+        }
+        return regions;
+    }
+
+    public void evictAll() {
+        sessionFactory.getCache().evictAllRegions();
+    }
+}
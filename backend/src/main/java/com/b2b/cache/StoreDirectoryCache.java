@@ -0,0 +1,64 @@
+package com.b2b.cache;
+
+import com.b2b.dto.response.CacheStatsResponse;
+import com.b2b.dto.response.StoreResponse;
+import com.b2b.repository.StoreRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Read-through cache of store snapshots (store plus manager) by store id.
+ * Billing responses take their nested store from here, so listing invoices
+ * or accounts no longer joins or re-reads the same few stores on every row.
+ * StoreService evicts an entry whenever it changes the store; a change to
+ * the manager's own user record is picked up when the entry expires.
+ */
+@Component
+public class StoreDirectoryCache {
+
+    private final StoreRepository storeRepository;
+    private final BoundedTtlCache<Long, StoreResponse> cache;
+
+    @Autowired
+    public StoreDirectoryCache(StoreRepository storeRepository,
+                               @Value("${app.cache.store-directory.max-size:2000}") int maxSize,
+                               @Value("${app.cache.store-directory.ttl-seconds:300}") long ttlSeconds) {
+        this.storeRepository = storeRepository;
+        this.cache = new BoundedTtlCache<>(maxSize, ttlSeconds * 1000);
+    }
+
+    /** Returns a private copy of the store snapshot, or null if the store does not exist. */
+    public StoreResponse get(Long storeId) {
+        StoreResponse snapshot = cache.getOrLoad(storeId, id -> storeRepository.findWithManagerById(id)
+            .map(StoreResponse::new)
+            .orElse(null));
+        return snapshot != null ? new StoreResponse(snapshot) : null;
+    }
+
+    /**
+     * Evicts now and again after the current transaction commits, so a reader
+     * that loaded the old row in between does not leave it cached.
+     */
+    public void evict(Long storeId) {
+        cache.invalidate(storeId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(storeId);
+                }
+            });
+        }
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStatsResponse stats() {
+        return new CacheStatsResponse("store-directory", cache);
+    }
+}
@@ -0,0 +1,40 @@
+package com.b2b.config;
+
+import com.b2b.dto.response.ApiResponse;
+import com.b2b.dto.response.IncludedResources;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Attaches the {@code included} section to any {@link ApiResponse} when the
+ * request asks for the compact view with {@code ?view=compact}. Billing
+ * responses are already compact when they get here; nested objects in any
+ * other response are moved into {@code included} now.
+ */
+@RestControllerAdvice
+public class CompactViewAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (body instanceof ApiResponse<?> apiResponse && apiResponse.getData() != null) {
+            IncludedResources included = IncludedResources.forCurrentRequest();
+            if (included != null) {
+                included.compact(apiResponse.getData());
+                apiResponse.setIncluded(included);
+            }
+        }
+        return body;
+    }
+}
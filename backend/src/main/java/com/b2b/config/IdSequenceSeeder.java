@@ -0,0 +1,51 @@
+package com.b2b.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the table-backed id sequences used by pooled generators past ids that
+ * were handed out by AUTO_INCREMENT before the switch, so new rows never reuse
+ * an existing id. Depends on the EntityManagerFactory so that the schema update
+ * that creates the sequence tables has already run.
+ */
+@Component
+public class IdSequenceSeeder {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdSequenceSeeder.class);
+
+    /** Must match allocationSize on the entities' @SequenceGenerator. */
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final String[][] SEQUENCES = {
+        {"invoice_seq", "invoices"},
+        {"invoice_item_seq", "invoice_items"}
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public IdSequenceSeeder(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void seed() {
+        for (String[] sequence : SEQUENCES) {
+            try {
+                int updated = jdbcTemplate.update(
+                    "UPDATE " + sequence[0] + " SET next_val = GREATEST(next_val, " +
+                    "(SELECT COALESCE(MAX(id), 0) + " + (ALLOCATION_SIZE + 1) + " FROM " + sequence[1] + "))");
+                logger.debug("Seeded id sequence {} ({} rows)", sequence[0], updated);
+            } catch (DataAccessException e) {
+                logger.warn("Could not seed id sequence {}: {}", sequence[0], e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.b2b.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/** Turned off with app.scheduling.enabled=false, e.g. in tests that count statements. */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "app.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
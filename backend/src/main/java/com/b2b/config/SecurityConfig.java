@@ -2,6 +2,7 @@ package com.b2b.config;
 
 import com.b2b.security.JwtAuthenticationFilter;
 import com.b2b.service.UserService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
@@ -29,13 +30,16 @@ public class SecurityConfig {
 
     private final UserService userService;
 
+    @Value("${app.security.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+
     public SecurityConfig(@Lazy UserService userService) {
         this.userService = userService;
     }
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     @Bean
@@ -0,0 +1,183 @@
+package com.b2b.controller;
+
+import com.b2b.cache.SecondLevelCacheRegions;
+import com.b2b.cache.StoreDirectoryCache;
+import com.b2b.dto.response.ApiResponse;
+import com.b2b.dto.response.CacheRegionStatsResponse;
+import com.b2b.dto.response.CacheStatsResponse;
+import com.b2b.dto.response.JobRunResponse;
+import com.b2b.dto.response.LoginExecutorStatsResponse;
+import com.b2b.dto.response.ReconciliationResponse;
+import com.b2b.entity.EmailOutbox;
+import com.b2b.security.JwtUtils;
+import com.b2b.security.LoginExecutor;
+import com.b2b.security.PasswordHashPolicy;
+import com.b2b.security.PrincipalCache;
+import com.b2b.service.AccountTotalsRebuildJob;
+import com.b2b.service.EmailOutboxDispatcher;
+import com.b2b.service.InvoicePaidAmountReconciler;
+import com.b2b.service.InvoiceSearchIndex;
+import com.b2b.service.JobRunRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/api/admin")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class AdminController {
+
+    private final PrincipalCache principalCache;
+    private final JwtUtils jwtUtils;
+    private final LoginExecutor loginExecutor;
+    private final PasswordHashPolicy passwordHashPolicy;
+    private final JobRunRegistry jobRunRegistry;
+    private final EmailOutboxDispatcher emailOutboxDispatcher;
+    private final InvoiceSearchIndex invoiceSearchIndex;
+    private final AccountTotalsRebuildJob accountTotalsRebuildJob;
+    private final InvoicePaidAmountReconciler invoicePaidAmountReconciler;
+    private final StoreDirectoryCache storeDirectoryCache;
+    private final SecondLevelCacheRegions secondLevelCacheRegions;
+
+    @Autowired
+    public AdminController(PrincipalCache principalCache, JwtUtils jwtUtils, LoginExecutor loginExecutor,
+                           PasswordHashPolicy passwordHashPolicy, JobRunRegistry jobRunRegistry,
+                           EmailOutboxDispatcher emailOutboxDispatcher, InvoiceSearchIndex invoiceSearchIndex,
+                           AccountTotalsRebuildJob accountTotalsRebuildJob,
+                           InvoicePaidAmountReconciler invoicePaidAmountReconciler,
+                           StoreDirectoryCache storeDirectoryCache,
+                           SecondLevelCacheRegions secondLevelCacheRegions) {
+        this.principalCache = principalCache;
+        this.jwtUtils = jwtUtils;
+        this.loginExecutor = loginExecutor;
+        this.passwordHashPolicy = passwordHashPolicy;
+        this.jobRunRegistry = jobRunRegistry;
+        this.emailOutboxDispatcher = emailOutboxDispatcher;
+        this.invoiceSearchIndex = invoiceSearchIndex;
+        this.accountTotalsRebuildJob = accountTotalsRebuildJob;
+        this.invoicePaidAmountReconciler = invoicePaidAmountReconciler;
+        this.storeDirectoryCache = storeDirectoryCache;
+        this.secondLevelCacheRegions = secondLevelCacheRegions;
+    }
+
+    @GetMapping("/metrics/principal-cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<CacheStatsResponse>> getPrincipalCacheStats() {
+        return ResponseEntity.ok(ApiResponse.success(principalCache.stats()));
+    }
+
+    @GetMapping("/metrics/verified-token-cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<CacheStatsResponse>> getVerifiedTokenCacheStats() {
+        CacheStatsResponse stats = jwtUtils.verifiedCacheStats();
+        if (stats == null) {
+            return ResponseEntity.ok(ApiResponse.success("Verified token cache is disabled", null));
+        }
+        return ResponseEntity.ok(ApiResponse.success(stats));
+    }
+
+    @DeleteMapping("/metrics/principal-cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<String>> clearPrincipalCache() {
+        principalCache.evictAll();
+        return ResponseEntity.ok(ApiResponse.success("Principal cache cleared"));
+    }
+
+    @GetMapping("/metrics/store-cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<CacheStatsResponse>> getStoreCacheStats() {
+        return ResponseEntity.ok(ApiResponse.success(storeDirectoryCache.stats()));
+    }
+
+    @DeleteMapping("/metrics/store-cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<String>> clearStoreCache() {
+        storeDirectoryCache.evictAll();
+        return ResponseEntity.ok(ApiResponse.success("Store cache cleared"));
+    }
+
+    @GetMapping("/metrics/entity-cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<CacheRegionStatsResponse>>> getEntityCacheStats() {
+        return ResponseEntity.ok(ApiResponse.success(secondLevelCacheRegions.stats()));
+    }
+
+    @DeleteMapping("/metrics/entity-cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<String>> clearEntityCache() {
+        secondLevelCacheRegions.evictAll();
+        return ResponseEntity.ok(ApiResponse.success("Entity cache cleared"));
+    }
+
+    @GetMapping("/metrics/login-executor")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<LoginExecutorStatsResponse>> getLoginExecutorStats() {
+        return ResponseEntity.ok(ApiResponse.success(loginExecutor.stats()));
+    }
+
+    @GetMapping("/password-hash/benchmark")
+    @PreAuthorize("hasRole('ADMIN')")
+    public CompletableFuture<ResponseEntity<ApiResponse<Map<Integer, Double>>>> benchmarkPasswordHash(
+            @RequestParam(defaultValue = "8") int minCost,
+            @RequestParam(defaultValue = "12") int maxCost,
+            @RequestParam(defaultValue = "5") int samples) {
+        if (minCost < 4 || maxCost > PasswordHashPolicy.MAX_BENCHMARK_COST || minCost > maxCost
+                || samples < 1 || samples > PasswordHashPolicy.MAX_BENCHMARK_SAMPLES) {
+            throw new IllegalArgumentException("Cost must be within 4-" + PasswordHashPolicy.MAX_BENCHMARK_COST
+                + " and samples within 1-" + PasswordHashPolicy.MAX_BENCHMARK_SAMPLES);
+        }
+
+        // Hashing runs on the login pool, never on a request thread
+        return loginExecutor.submit(() -> passwordHashPolicy.benchmark(minCost, maxCost, samples))
+            .thenApply(loginsPerSecond -> ResponseEntity.ok(
+                ApiResponse.success("Logins per second per core by BCrypt cost", loginsPerSecond)));
+    }
+
+    @GetMapping("/jobs")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<JobRunResponse>>> getJobRuns() {
+        return ResponseEntity.ok(ApiResponse.success(jobRunRegistry.getLastRuns()));
+    }
+
+    @GetMapping("/metrics/email-outbox")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<EmailOutbox.Status, Long>>> getEmailOutboxStats() {
+        return ResponseEntity.ok(ApiResponse.success(emailOutboxDispatcher.stats()));
+    }
+
+    @PostMapping("/search/invoices/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Long>> rebuildInvoiceSearchIndex() {
+        long indexed = invoiceSearchIndex.rebuild();
+        return ResponseEntity.ok(ApiResponse.success("Invoice search index rebuilt", indexed));
+    }
+
+    @PostMapping("/billing/totals/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Long>> rebuildAccountTotals() {
+        long rows = accountTotalsRebuildJob.rebuild();
+        if (rows < 0) {
+            throw new IllegalStateException("A rebuild is already running");
+        }
+        return ResponseEntity.ok(ApiResponse.success("Account totals rebuilt", rows));
+    }
+
+    @PostMapping("/billing/paid-amount/backfill")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Long>> backfillPaidAmounts() {
+        long visited = invoicePaidAmountReconciler.backfill();
+        return ResponseEntity.ok(ApiResponse.success("Invoice paid amounts backfilled", visited));
+    }
+
+    @GetMapping("/billing/paid-amount/check")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<ReconciliationResponse>> checkPaidAmounts(
+            @RequestParam(defaultValue = "false") boolean repair) {
+        return ResponseEntity.ok(ApiResponse.success(invoicePaidAmountReconciler.check(repair)));
+    }
+}
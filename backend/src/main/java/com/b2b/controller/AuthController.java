@@ -7,13 +7,19 @@ import com.b2b.dto.request.UserRegistrationRequest;
 import com.b2b.dto.response.ApiResponse;
 import com.b2b.dto.response.AuthResponse;
 import com.b2b.dto.response.UserResponse;
+import com.b2b.exception.TooManyRequestsException;
+import com.b2b.security.LoginExecutor;
+import com.b2b.security.RequestRateLimiter;
 import com.b2b.service.AuthService;
 import com.b2b.service.PasswordResetService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -21,17 +27,26 @@ public class AuthController {
 
     private final AuthService authService;
     private final PasswordResetService passwordResetService;
+    private final LoginExecutor loginExecutor;
+    private final RequestRateLimiter requestRateLimiter;
 
     @Autowired
-    public AuthController(AuthService authService, PasswordResetService passwordResetService) {
+    public AuthController(AuthService authService, PasswordResetService passwordResetService,
+                          LoginExecutor loginExecutor, RequestRateLimiter requestRateLimiter) {
         this.authService = authService;
         this.passwordResetService = passwordResetService;
+        this.loginExecutor = loginExecutor;
+        this.requestRateLimiter = requestRateLimiter;
     }
 
     @PostMapping("/login")
-    public ResponseEntity<ApiResponse<AuthResponse>> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
-        AuthResponse authResponse = authService.authenticateUser(loginRequest);
-        return ResponseEntity.ok(ApiResponse.success("Login successful", authResponse));
+    public CompletableFuture<ResponseEntity<ApiResponse<AuthResponse>>> authenticateUser(@Valid @RequestBody LoginRequest loginRequest,
+                                                                                        HttpServletRequest httpRequest) {
+        if (!requestRateLimiter.allowLogin(httpRequest.getRemoteAddr())) {
+            throw new TooManyRequestsException("Too many login attempts. Please try again later.");
+        }
+        return loginExecutor.submit(() -> authService.authenticateUser(loginRequest))
+            .thenApply(authResponse -> ResponseEntity.ok(ApiResponse.success("Login successful", authResponse)));
     }
 
     @PostMapping("/register")
@@ -47,8 +62,16 @@ public class AuthController {
     }
 
     @PostMapping("/forgot-password")
-    public ResponseEntity<ApiResponse<String>> forgotPassword(@Valid @RequestBody ForgotPasswordRequest request) {
-        String message = passwordResetService.createPasswordResetToken(request.getEmail());
+    public ResponseEntity<ApiResponse<String>> forgotPassword(@Valid @RequestBody ForgotPasswordRequest request,
+                                                              HttpServletRequest httpRequest) {
+        // 在任何資料庫操作之前先以記憶體計數拒絕過量請求
+        RequestRateLimiter.PasswordResetDecision decision =
+            requestRateLimiter.allowPasswordReset(request.getEmail(), httpRequest.getRemoteAddr());
+        if (decision == RequestRateLimiter.PasswordResetDecision.DENIED) {
+            throw new TooManyRequestsException("您已請求了太多密碼重置。請稍後再試。");
+        }
+        String message = passwordResetService.createPasswordResetToken(request.getEmail(),
+            decision == RequestRateLimiter.PasswordResetDecision.ALLOWED_UNTRACKED);
         return ResponseEntity.ok(ApiResponse.success(message, message));
     }
 
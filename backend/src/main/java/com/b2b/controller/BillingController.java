@@ -1,6 +1,7 @@
 package com.b2b.controller;
 
 import com.b2b.dto.request.BillingAccountCreateRequest;
+import com.b2b.dto.request.InvoiceBulkCreateRequest;
 import com.b2b.dto.request.InvoiceCreateRequest;
 import com.b2b.dto.request.PaymentCreateRequest;
 import com.b2b.dto.response.*;
@@ -8,6 +9,7 @@ import com.b2b.entity.BillingAccount;
 import com.b2b.entity.Invoice;
 import com.b2b.entity.Payment;
 import com.b2b.service.BillingAccountService;
+import com.b2b.service.BillingExportService;
 import com.b2b.service.InvoiceService;
 import com.b2b.service.PaymentService;
 import jakarta.validation.Valid;
@@ -17,13 +19,17 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/billing")
@@ -33,14 +39,17 @@ public class BillingController {
     private final BillingAccountService billingAccountService;
     private final InvoiceService invoiceService;
     private final PaymentService paymentService;
+    private final BillingExportService billingExportService;
 
     @Autowired
     public BillingController(BillingAccountService billingAccountService,
                            InvoiceService invoiceService,
-                           PaymentService paymentService) {
+                           PaymentService paymentService,
+                           BillingExportService billingExportService) {
         this.billingAccountService = billingAccountService;
         this.invoiceService = invoiceService;
         this.paymentService = paymentService;
+        this.billingExportService = billingExportService;
     }
 
     // Billing Account Endpoints
@@ -54,18 +63,27 @@ public class BillingController {
 
     @GetMapping("/accounts")
     @PreAuthorize("hasAnyRole('ADMIN', 'STORE_MANAGER')")
-    public ResponseEntity<ApiResponse<Page<BillingAccountResponse>>> getAllBillingAccounts(
+    public ResponseEntity<ApiResponse<Page<?>>> getAllBillingAccounts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDirection,
             @RequestParam(required = false) String search,
-            @RequestParam(required = false) BillingAccount.Status status) {
+            @RequestParam(required = false) BillingAccount.Status status,
+            @RequestParam(required = false) String fields) {
         
         Sort sort = sortDirection.equalsIgnoreCase("desc") ? 
             Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
         
+        if (fields != null && !fields.isBlank()) {
+            if (search != null && !search.trim().isEmpty()) {
+                throw new IllegalArgumentException("fields cannot be combined with search");
+            }
+            return ResponseEntity.ok(ApiResponse.success(
+                billingAccountService.selectBillingAccounts(fields, status, pageable)));
+        }
+        
         Page<BillingAccountResponse> accounts;
         if (search != null && !search.trim().isEmpty()) {
             accounts = billingAccountService.searchBillingAccounts(search, pageable);
@@ -78,6 +96,20 @@ public class BillingController {
         return ResponseEntity.ok(ApiResponse.success(accounts));
     }
 
+    @GetMapping("/accounts/seek")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STORE_MANAGER')")
+    public ResponseEntity<ApiResponse<CursorPage<BillingAccountResponse>>> seekBillingAccounts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDirection,
+            @RequestParam(required = false) BillingAccount.Status status,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        CursorPage<BillingAccountResponse> page = billingAccountService.seekBillingAccounts(sortBy, sortDirection.equalsIgnoreCase("desc"),
+            status, cursor, size, includeTotal);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
     @GetMapping("/accounts/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'STORE_MANAGER')")
     public ResponseEntity<ApiResponse<BillingAccountResponse>> getBillingAccountById(@PathVariable Long id) {
@@ -119,6 +151,16 @@ public class BillingController {
         return ResponseEntity.ok(ApiResponse.success("Balance adjusted successfully", account));
     }
 
+    @GetMapping("/accounts/{id}/ledger")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STORE_MANAGER')")
+    public ResponseEntity<ApiResponse<Page<BalanceLedgerEntryResponse>>> getBalanceLedger(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        Page<BalanceLedgerEntryResponse> entries = billingAccountService.getBalanceLedger(id, PageRequest.of(page, size));
+        return ResponseEntity.ok(ApiResponse.success(entries));
+    }
+
     // Invoice Endpoints
     @PostMapping("/invoices")
     @PreAuthorize("hasAnyRole('ADMIN', 'STORE_MANAGER')")
@@ -127,20 +169,36 @@ public class BillingController {
         return ResponseEntity.ok(ApiResponse.success("Invoice created successfully", invoice));
     }
 
+    @PostMapping("/invoices/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<InvoiceBulkCreateResponse>> createInvoicesBulk(
+            @Valid @RequestBody InvoiceBulkCreateRequest bulkRequest) {
+        InvoiceBulkCreateResponse result = invoiceService.createInvoicesBulk(bulkRequest.getInvoices());
+        return ResponseEntity.ok(ApiResponse.success("Bulk invoice creation completed", result));
+    }
+
     @GetMapping("/invoices")
     @PreAuthorize("hasAnyRole('ADMIN', 'STORE_MANAGER')")
-    public ResponseEntity<ApiResponse<Page<InvoiceResponse>>> getAllInvoices(
+    public ResponseEntity<ApiResponse<Page<?>>> getAllInvoices(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDirection,
             @RequestParam(required = false) String search,
-            @RequestParam(required = false) Invoice.Status status) {
+            @RequestParam(required = false) Invoice.Status status,
+            @RequestParam(required = false) String fields) {
         
         Sort sort = sortDirection.equalsIgnoreCase("desc") ? 
             Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
         
+        if (fields != null && !fields.isBlank()) {
+            if (search != null && !search.trim().isEmpty()) {
+                throw new IllegalArgumentException("fields cannot be combined with search");
+            }
+            return ResponseEntity.ok(ApiResponse.success(invoiceService.selectInvoices(fields, status, pageable)));
+        }
+        
         Page<InvoiceResponse> invoices;
         if (search != null && !search.trim().isEmpty()) {
             invoices = invoiceService.searchInvoices(search, pageable);
@@ -153,6 +211,26 @@ public class BillingController {
         return ResponseEntity.ok(ApiResponse.success(invoices));
     }
 
+    @GetMapping("/invoices/seek")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STORE_MANAGER')")
+    public ResponseEntity<ApiResponse<CursorPage<InvoiceResponse>>> seekInvoices(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDirection,
+            @RequestParam(required = false) Invoice.Status status,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        CursorPage<InvoiceResponse> page = invoiceService.seekInvoices(sortBy, sortDirection.equalsIgnoreCase("desc"),
+            status, cursor, size, includeTotal);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    @GetMapping("/invoices/batch")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STORE_MANAGER')")
+    public ResponseEntity<ApiResponse<BatchGetResponse<InvoiceResponse>>> getInvoicesByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(ApiResponse.success(invoiceService.getInvoicesByIds(ids)));
+    }
+
     @GetMapping("/invoices/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'STORE_MANAGER')")
     public ResponseEntity<ApiResponse<InvoiceResponse>> getInvoiceById(@PathVariable Long id) {
@@ -196,6 +274,18 @@ public class BillingController {
         return ResponseEntity.ok(ApiResponse.success(invoices));
     }
 
+    @GetMapping("/invoices/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STORE_MANAGER')")
+    public ResponseEntity<StreamingResponseBody> exportInvoicesDueBetween(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "CSV") BillingExportService.Format format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        
+        return export("invoices", format, acceptEncoding, out ->
+            billingExportService.exportInvoicesDueBetween(startDate, endDate, format, out));
+    }
+
     @PatchMapping("/invoices/{id}/send")
     @PreAuthorize("hasAnyRole('ADMIN', 'STORE_MANAGER')")
     public ResponseEntity<ApiResponse<InvoiceResponse>> sendInvoice(@PathVariable Long id) {
@@ -234,18 +324,26 @@ public class BillingController {
 
     @GetMapping("/payments")
     @PreAuthorize("hasAnyRole('ADMIN', 'STORE_MANAGER')")
-    public ResponseEntity<ApiResponse<Page<PaymentResponse>>> getAllPayments(
+    public ResponseEntity<ApiResponse<Page<?>>> getAllPayments(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "paymentDate") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDirection,
             @RequestParam(required = false) String search,
-            @RequestParam(required = false) Payment.Status status) {
+            @RequestParam(required = false) Payment.Status status,
+            @RequestParam(required = false) String fields) {
         
         Sort sort = sortDirection.equalsIgnoreCase("desc") ? 
             Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
         
+        if (fields != null && !fields.isBlank()) {
+            if (search != null && !search.trim().isEmpty()) {
+                throw new IllegalArgumentException("fields cannot be combined with search");
+            }
+            return ResponseEntity.ok(ApiResponse.success(paymentService.selectPayments(fields, status, pageable)));
+        }
+        
         Page<PaymentResponse> payments;
         if (search != null && !search.trim().isEmpty()) {
             payments = paymentService.searchPayments(search, pageable);
@@ -258,6 +356,26 @@ public class BillingController {
         return ResponseEntity.ok(ApiResponse.success(payments));
     }
 
+    @GetMapping("/payments/seek")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STORE_MANAGER')")
+    public ResponseEntity<ApiResponse<CursorPage<PaymentResponse>>> seekPayments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "paymentDate") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDirection,
+            @RequestParam(required = false) Payment.Status status,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        CursorPage<PaymentResponse> page = paymentService.seekPayments(sortBy, sortDirection.equalsIgnoreCase("desc"),
+            status, cursor, size, includeTotal);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    @GetMapping("/payments/batch")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STORE_MANAGER')")
+    public ResponseEntity<ApiResponse<BatchGetResponse<PaymentResponse>>> getPaymentsByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(ApiResponse.success(paymentService.getPaymentsByIds(ids)));
+    }
+
     @GetMapping("/payments/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'STORE_MANAGER')")
     public ResponseEntity<ApiResponse<PaymentResponse>> getPaymentById(@PathVariable Long id) {
@@ -284,6 +402,19 @@ public class BillingController {
         return ResponseEntity.ok(ApiResponse.success(payments));
     }
 
+    @GetMapping("/payments/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STORE_MANAGER')")
+    public ResponseEntity<StreamingResponseBody> exportPaymentsBetweenDates(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Payment.Status status,
+            @RequestParam(defaultValue = "CSV") BillingExportService.Format format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        
+        return export("payments", format, acceptEncoding, out ->
+            billingExportService.exportPaymentsBetween(startDate, endDate, status, format, out));
+    }
+
     @GetMapping("/payments/date-range")
     @PreAuthorize("hasAnyRole('ADMIN', 'STORE_MANAGER')")
     public ResponseEntity<ApiResponse<List<PaymentResponse>>> getPaymentsBetweenDates(
@@ -321,4 +452,62 @@ public class BillingController {
         paymentService.deletePayment(id);
         return ResponseEntity.ok(ApiResponse.success("Payment deleted successfully"));
     }
-}
\ No newline at end of file
+
+    private ResponseEntity<StreamingResponseBody> export(String name, BillingExportService.Format format,
+                                                         String acceptEncoding, StreamingResponseBody body) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String extension = format == BillingExportService.Format.CSV ? "csv" : "ndjson";
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(format.getContentType() + ";charset=UTF-8"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "." + extension + "\"");
+        response.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!gzip) {
+            return response.body(body);
+        }
+        return response
+            .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+            .body(out -> {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 8192);
+                body.writeTo(compressed);
+                compressed.finish();
+            });
+    }
+
+    /**
+     * True when the Accept-Encoding header gives gzip, or failing that {@code *}, a non-zero
+     * q-value (RFC 9110 section 12.5.3). Codings are matched exactly, so {@code x-gzip} does not count.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQ = null;
+        Double anyQ = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase();
+            if (!coding.equals("gzip") && !coding.equals("*")) {
+                continue;
+            }
+            double q = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim().toLowerCase();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip")) {
+                gzipQ = q;
+            } else {
+                anyQ = q;
+            }
+        }
+        Double q = gzipQ != null ? gzipQ : anyQ;
+        return q != null && q > 0;
+    }
+}
@@ -3,6 +3,7 @@ package com.b2b.controller;
 import com.b2b.dto.request.StoreCreateRequest;
 import com.b2b.dto.request.StoreUpdateRequest;
 import com.b2b.dto.response.ApiResponse;
+import com.b2b.dto.response.BatchGetResponse;
 import com.b2b.dto.response.StoreResponse;
 import com.b2b.entity.Store;
 import com.b2b.service.StoreService;
@@ -39,18 +40,26 @@ public class StoreController {
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'STORE_MANAGER')")
-    public ResponseEntity<ApiResponse<Page<StoreResponse>>> getAllStores(
+    public ResponseEntity<ApiResponse<Page<?>>> getAllStores(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDirection,
             @RequestParam(required = false) String search,
-            @RequestParam(required = false) Store.Status status) {
+            @RequestParam(required = false) Store.Status status,
+            @RequestParam(required = false) String fields) {
         
         Sort sort = sortDirection.equalsIgnoreCase("desc") ? 
             Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
         
+        if (fields != null && !fields.isBlank()) {
+            if (search != null && !search.trim().isEmpty()) {
+                throw new IllegalArgumentException("fields cannot be combined with search");
+            }
+            return ResponseEntity.ok(ApiResponse.success(storeService.selectStores(fields, status, pageable)));
+        }
+        
         Page<StoreResponse> stores;
         if (search != null && !search.trim().isEmpty()) {
             if (status != null) {
@@ -67,6 +76,12 @@ public class StoreController {
         return ResponseEntity.ok(ApiResponse.success(stores));
     }
 
+    @GetMapping("/batch")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STORE_MANAGER')")
+    public ResponseEntity<ApiResponse<BatchGetResponse<StoreResponse>>> getStoresByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(ApiResponse.success(storeService.getStoresByIds(ids)));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'STORE_MANAGER')")
     public ResponseEntity<ApiResponse<StoreResponse>> getStoreById(@PathVariable Long id) {
@@ -2,6 +2,7 @@ package com.b2b.controller;
 
 import com.b2b.dto.request.UserUpdateRequest;
 import com.b2b.dto.response.ApiResponse;
+import com.b2b.dto.response.BatchGetResponse;
 import com.b2b.dto.response.UserResponse;
 import com.b2b.entity.User;
 import com.b2b.service.UserService;
@@ -15,6 +16,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/users")
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -29,18 +32,27 @@ public class UserController {
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ApiResponse<Page<UserResponse>>> getAllUsers(
+    public ResponseEntity<ApiResponse<Page<?>>> getAllUsers(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDirection,
             @RequestParam(required = false) String search,
-            @RequestParam(required = false) Boolean active) {
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) String fields) {
         
         Sort sort = sortDirection.equalsIgnoreCase("desc") ? 
             Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
         
+        if (fields != null && !fields.isBlank()) {
+            if (search != null && !search.trim().isEmpty()) {
+                throw new IllegalArgumentException("fields cannot be combined with search");
+            }
+            boolean activeOnly = active != null && active;
+            return ResponseEntity.ok(ApiResponse.success(userService.selectUsers(fields, activeOnly, pageable)));
+        }
+        
         Page<UserResponse> users;
         if (search != null && !search.trim().isEmpty()) {
             if (active != null) {
@@ -57,6 +69,12 @@ public class UserController {
         return ResponseEntity.ok(ApiResponse.success(users));
     }
 
+    @GetMapping("/batch")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<BatchGetResponse<UserResponse>>> getUsersByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(ApiResponse.success(userService.getUsersByIds(ids)));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or @userService.getUserById(#id).username == authentication.name")
     public ResponseEntity<ApiResponse<UserResponse>> getUserById(@PathVariable Long id) {
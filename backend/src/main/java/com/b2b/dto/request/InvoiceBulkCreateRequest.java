@@ -0,0 +1,23 @@
+package com.b2b.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class InvoiceBulkCreateRequest {
+    
+    @NotEmpty(message = "At least one invoice is required")
+    @Size(max = 10000, message = "A bulk request must not exceed 10000 invoices")
+    @Valid
+    private List<InvoiceCreateRequest> invoices;
+
+    public List<InvoiceCreateRequest> getInvoices() {
+        return invoices;
+    }
+
+    public void setInvoices(List<InvoiceCreateRequest> invoices) {
+        this.invoices = invoices;
+    }
+}
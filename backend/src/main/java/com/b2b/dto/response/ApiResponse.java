@@ -1,5 +1,7 @@
 package com.b2b.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.LocalDateTime;
 
 public class ApiResponse<T> {
@@ -8,6 +10,9 @@ public class ApiResponse<T> {
     private String message;
     private T data;
     private LocalDateTime timestamp;
+    /** Only present in the compact view ({@code ?view=compact}). */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private IncludedResources included;
 
     public ApiResponse() {
         this.timestamp = LocalDateTime.now();
@@ -67,4 +72,12 @@ public class ApiResponse<T> {
     public void setTimestamp(LocalDateTime timestamp) {
         this.timestamp = timestamp;
     }
-}
\ No newline at end of file
+
+    public IncludedResources getIncluded() {
+        return included;
+    }
+
+    public void setIncluded(IncludedResources included) {
+        this.included = included;
+    }
+}
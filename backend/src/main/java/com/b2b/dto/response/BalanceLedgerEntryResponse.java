@@ -0,0 +1,65 @@
+package com.b2b.dto.response;
+
+import com.b2b.entity.BalanceLedgerEntry;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class BalanceLedgerEntryResponse {
+
+    private Long id;
+    private Long billingAccountId;
+    private BigDecimal amount;
+    private BalanceLedgerEntry.EntryType entryType;
+    private LocalDateTime createdAt;
+
+    public BalanceLedgerEntryResponse() {}
+
+    public BalanceLedgerEntryResponse(BalanceLedgerEntry entry) {
+        this.id = entry.getId();
+        this.billingAccountId = entry.getBillingAccountId();
+        this.amount = entry.getAmount();
+        this.entryType = entry.getEntryType();
+        this.createdAt = entry.getCreatedAt();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getBillingAccountId() {
+        return billingAccountId;
+    }
+
+    public void setBillingAccountId(Long billingAccountId) {
+        this.billingAccountId = billingAccountId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public BalanceLedgerEntry.EntryType getEntryType() {
+        return entryType;
+    }
+
+    public void setEntryType(BalanceLedgerEntry.EntryType entryType) {
+        this.entryType = entryType;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
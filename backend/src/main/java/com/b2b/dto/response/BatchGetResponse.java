@@ -0,0 +1,70 @@
+package com.b2b.dto.response;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class BatchGetResponse<T> {
+
+    /** Upper bound on ids per request, so one call cannot turn into an unbounded IN list. */
+    public static final int MAX_IDS = 200;
+
+    private List<T> items;
+    private List<Long> missingIds;
+
+    public BatchGetResponse() {}
+
+    public BatchGetResponse(List<T> items, List<Long> missingIds) {
+        this.items = items;
+        this.missingIds = missingIds;
+    }
+
+    /** Rejects empty or oversized requests; returns the ids without duplicates, in request order. */
+    public static List<Long> distinctIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one id is required");
+        }
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        if (distinct.size() > MAX_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_IDS + " ids can be requested at once");
+        }
+        return distinct;
+    }
+
+    /** Maps the loaded rows into the order of {@code ids}, collecting the ids that were not found. */
+    public static <E, T> BatchGetResponse<T> of(List<Long> ids, Collection<E> found, Function<E, Long> idOf,
+                                                Function<E, T> mapper) {
+        Map<Long, E> byId = found.stream().collect(Collectors.toMap(idOf, Function.identity()));
+        List<T> items = new ArrayList<>(byId.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            E entity = byId.get(id);
+            if (entity != null) {
+                items.add(mapper.apply(entity));
+            } else {
+                missing.add(id);
+            }
+        }
+        return new BatchGetResponse<>(items, missing);
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public List<Long> getMissingIds() {
+        return missingIds;
+    }
+
+    public void setMissingIds(List<Long> missingIds) {
+        this.missingIds = missingIds;
+    }
+}
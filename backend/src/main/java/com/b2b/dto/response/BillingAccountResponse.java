@@ -1,6 +1,7 @@
 package com.b2b.dto.response;
 
 import com.b2b.entity.BillingAccount;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -8,7 +9,11 @@ import java.time.LocalDateTime;
 public class BillingAccountResponse {
     
     private Long id;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private StoreResponse store;
+    /** Set instead of the nested object in the compact view; see {@link IncludedResources}. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long storeId;
     private String accountName;
     private BillingAccount.AccountType accountType;
     private BigDecimal balance;
@@ -21,8 +26,12 @@ public class BillingAccountResponse {
     public BillingAccountResponse() {}
 
     public BillingAccountResponse(BillingAccount account) {
+        this(account, account.getStore() != null ? new StoreResponse(account.getStore()) : null);
+    }
+
+    public BillingAccountResponse(BillingAccount account, StoreResponse store) {
         this.id = account.getId();
-        this.store = account.getStore() != null ? new StoreResponse(account.getStore()) : null;
+        this.store = store;
         this.accountName = account.getAccountName();
         this.accountType = account.getAccountType();
         this.balance = account.getBalance();
@@ -49,6 +58,14 @@ public class BillingAccountResponse {
         this.store = store;
     }
 
+    public Long getStoreId() {
+        return storeId;
+    }
+
+    public void setStoreId(Long storeId) {
+        this.storeId = storeId;
+    }
+
     public String getAccountName() {
         return accountName;
     }
@@ -0,0 +1,63 @@
+package com.b2b.dto.response;
+
+import org.hibernate.stat.CacheRegionStatistics;
+
+public class CacheRegionStatsResponse {
+
+    private String region;
+    private long hits;
+    private long misses;
+    private long puts;
+    private double hitRate;
+
+    public CacheRegionStatsResponse() {}
+
+    public CacheRegionStatsResponse(String region, CacheRegionStatistics statistics) {
+        this.region = region;
+        this.hits = statistics.getHitCount();
+        this.misses = statistics.getMissCount();
+        this.puts = statistics.getPutCount();
+        long lookups = hits + misses;
+        this.hitRate = lookups > 0 ? (double) hits / lookups : 0.0;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public void setMisses(long misses) {
+        this.misses = misses;
+    }
+
+    public long getPuts() {
+        return puts;
+    }
+
+    public void setPuts(long puts) {
+        this.puts = puts;
+    }
+
+    public double getHitRate() {
+        return hitRate;
+    }
+
+    public void setHitRate(double hitRate) {
+        this.hitRate = hitRate;
+    }
+}
@@ -0,0 +1,83 @@
+package com.b2b.dto.response;
+
+import com.b2b.cache.BoundedTtlCache;
+
+public class CacheStatsResponse {
+
+    private String name;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private int size;
+    private int maxSize;
+    private double hitRate;
+
+    public CacheStatsResponse() {}
+
+    public CacheStatsResponse(String name, BoundedTtlCache<?, ?> cache) {
+        this.name = name;
+        this.hits = cache.getHits();
+        this.misses = cache.getMisses();
+        this.evictions = cache.getEvictions();
+        this.size = cache.size();
+        this.maxSize = cache.getMaxSize();
+        long lookups = hits + misses;
+        this.hitRate = lookups > 0 ? (double) hits / lookups : 0.0;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public void setMisses(long misses) {
+        this.misses = misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public void setEvictions(long evictions) {
+        this.evictions = evictions;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public double getHitRate() {
+        return hitRate;
+    }
+
+    public void setHitRate(double hitRate) {
+        this.hitRate = hitRate;
+    }
+}
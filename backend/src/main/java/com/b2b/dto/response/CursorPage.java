@@ -0,0 +1,69 @@
+package com.b2b.dto.response;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class CursorPage<T> {
+
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+    private Long totalElements;
+
+    public CursorPage() {}
+
+    public CursorPage(List<T> content, int size, String nextCursor, Long totalElements) {
+        this.content = content;
+        this.size = size;
+        this.hasNext = nextCursor != null;
+        this.nextCursor = nextCursor;
+        this.totalElements = totalElements;
+    }
+
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        List<R> mapped = content.stream().map(mapper).collect(Collectors.toList());
+        return new CursorPage<>(mapped, size, nextCursor, totalElements);
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public Long getTotalElements() {
+        return totalElements;
+    }
+
+    public void setTotalElements(Long totalElements) {
+        this.totalElements = totalElements;
+    }
+}
@@ -0,0 +1,164 @@
+package com.b2b.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.data.domain.Page;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * The {@code included} section of a compact response: every nested invoice,
+ * billing account, store and user, once each and keyed by id. Responses built
+ * through {@code BillingResponseMapper} during a compact request reference
+ * their nested objects by id (e.g. {@code billingAccountId}) and register each
+ * one here as it is first met, so a shared object is built once rather than
+ * once per row. {@link #compact} handles responses built elsewhere by moving
+ * their nested objects here after the fact.
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class IncludedResources {
+
+    public static final String VIEW_PARAM = "view";
+    public static final String COMPACT = "compact";
+
+    private static final String REQUEST_ATTRIBUTE = IncludedResources.class.getName();
+
+    private final Map<Long, InvoiceResponse> invoices = new LinkedHashMap<>();
+    private final Map<Long, BillingAccountResponse> billingAccounts = new LinkedHashMap<>();
+    private final Map<Long, StoreResponse> stores = new LinkedHashMap<>();
+    private final Map<Long, UserResponse> users = new LinkedHashMap<>();
+
+    /**
+     * The included section of the current request if it asked for the compact
+     * view, created on first use; null outside a request or for the full view.
+     */
+    public static IncludedResources forCurrentRequest() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)
+                || !COMPACT.equalsIgnoreCase(attributes.getRequest().getParameter(VIEW_PARAM))) {
+            return null;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        IncludedResources included = (IncludedResources) request.getAttribute(REQUEST_ATTRIBUTE);
+        if (included == null) {
+            included = new IncludedResources();
+            request.setAttribute(REQUEST_ATTRIBUTE, included);
+        }
+        return included;
+    }
+
+    public void includeInvoice(Long id, Supplier<InvoiceResponse> builder) {
+        include(invoices, id, builder);
+    }
+
+    public void includeBillingAccount(Long id, Supplier<BillingAccountResponse> builder) {
+        include(billingAccounts, id, builder);
+    }
+
+    public void includeStore(Long id, Supplier<StoreResponse> builder) {
+        include(stores, id, builder);
+    }
+
+    public void includeUser(Long id, Supplier<UserResponse> builder) {
+        include(users, id, builder);
+    }
+
+    /** Not computeIfAbsent: a builder may include objects of its own into the other maps. */
+    private static <T> void include(Map<Long, T> resources, Long id, Supplier<T> builder) {
+        if (!resources.containsKey(id)) {
+            T resource = builder.get();
+            if (resource != null) {
+                resources.put(id, resource);
+            }
+        }
+    }
+
+    /** Compacts a single response, or the responses in a list, {@link Page}, {@link CursorPage} or batch. */
+    public void compact(Object data) {
+        if (data instanceof Page<?> page) {
+            page.getContent().forEach(this::compactItem);
+        } else if (data instanceof CursorPage<?> page) {
+            page.getContent().forEach(this::compactItem);
+        } else if (data instanceof BatchGetResponse<?> batch) {
+            batch.getItems().forEach(this::compactItem);
+        } else if (data instanceof Collection<?> items) {
+            items.forEach(this::compactItem);
+        } else {
+            compactItem(data);
+        }
+    }
+
+    private void compactItem(Object item) {
+        if (item instanceof PaymentResponse payment) {
+            compactPayment(payment);
+        } else if (item instanceof InvoiceResponse invoice) {
+            compactInvoice(invoice);
+        } else if (item instanceof BillingAccountResponse account) {
+            compactAccount(account);
+        } else if (item instanceof StoreResponse store) {
+            compactStore(store);
+        }
+    }
+
+    private void compactPayment(PaymentResponse payment) {
+        InvoiceResponse invoice = payment.getInvoice();
+        if (invoice != null) {
+            payment.setInvoiceId(invoice.getId());
+            payment.setInvoice(null);
+            if (invoices.putIfAbsent(invoice.getId(), invoice) == null) {
+                compactInvoice(invoice);
+            }
+        }
+    }
+
+    private void compactInvoice(InvoiceResponse invoice) {
+        BillingAccountResponse account = invoice.getBillingAccount();
+        if (account != null) {
+            invoice.setBillingAccountId(account.getId());
+            invoice.setBillingAccount(null);
+            if (billingAccounts.putIfAbsent(account.getId(), account) == null) {
+                compactAccount(account);
+            }
+        }
+    }
+
+    private void compactAccount(BillingAccountResponse account) {
+        StoreResponse store = account.getStore();
+        if (store != null) {
+            account.setStoreId(store.getId());
+            account.setStore(null);
+            if (stores.putIfAbsent(store.getId(), store) == null) {
+                compactStore(store);
+            }
+        }
+    }
+
+    private void compactStore(StoreResponse store) {
+        UserResponse manager = store.getManager();
+        if (manager != null) {
+            store.setManagerId(manager.getId());
+            store.setManager(null);
+            users.putIfAbsent(manager.getId(), manager);
+        }
+    }
+
+    public Map<Long, InvoiceResponse> getInvoices() {
+        return invoices;
+    }
+
+    public Map<Long, BillingAccountResponse> getBillingAccounts() {
+        return billingAccounts;
+    }
+
+    public Map<Long, StoreResponse> getStores() {
+        return stores;
+    }
+
+    public Map<Long, UserResponse> getUsers() {
+        return users;
+    }
+}
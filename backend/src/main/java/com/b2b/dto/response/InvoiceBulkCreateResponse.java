@@ -0,0 +1,140 @@
+package com.b2b.dto.response;
+
+import java.util.List;
+
+public class InvoiceBulkCreateResponse {
+
+    private int requested;
+    private int created;
+    private int failed;
+    private long durationMillis;
+    private double rowsPerSecond;
+    private List<RowResult> results;
+
+    public InvoiceBulkCreateResponse() {}
+
+    public InvoiceBulkCreateResponse(List<RowResult> results, long durationMillis) {
+        this.results = results;
+        this.requested = results.size();
+        this.created = (int) results.stream().filter(RowResult::isSuccess).count();
+        this.failed = requested - created;
+        this.durationMillis = durationMillis;
+        this.rowsPerSecond = durationMillis > 0 ? created * 1000.0 / durationMillis : created;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public void setRequested(int requested) {
+        this.requested = requested;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    public List<RowResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<RowResult> results) {
+        this.results = results;
+    }
+
+    public static class RowResult {
+
+        private int index;
+        private boolean success;
+        private Long invoiceId;
+        private String invoiceNumber;
+        private String error;
+
+        public RowResult() {}
+
+        public static RowResult created(int index, Long invoiceId, String invoiceNumber) {
+            RowResult result = new RowResult();
+            result.index = index;
+            result.success = true;
+            result.invoiceId = invoiceId;
+            result.invoiceNumber = invoiceNumber;
+            return result;
+        }
+
+        public static RowResult failed(int index, String error) {
+            RowResult result = new RowResult();
+            result.index = index;
+            result.success = false;
+            result.error = error;
+            return result;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public void setIndex(int index) {
+            this.index = index;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        public void setSuccess(boolean success) {
+            this.success = success;
+        }
+
+        public Long getInvoiceId() {
+            return invoiceId;
+        }
+
+        public void setInvoiceId(Long invoiceId) {
+            this.invoiceId = invoiceId;
+        }
+
+        public String getInvoiceNumber() {
+            return invoiceNumber;
+        }
+
+        public void setInvoiceNumber(String invoiceNumber) {
+            this.invoiceNumber = invoiceNumber;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public void setError(String error) {
+            this.error = error;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.b2b.dto.response;
 
 import com.b2b.entity.Invoice;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -12,10 +13,15 @@ public class InvoiceResponse {
     
     private Long id;
     private String invoiceNumber;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private BillingAccountResponse billingAccount;
+    /** Set instead of the nested object in the compact view; see {@link IncludedResources}. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long billingAccountId;
     private BigDecimal amount;
     private BigDecimal taxAmount;
     private BigDecimal totalAmount;
+    private BigDecimal paidAmount;
     private Invoice.Status status;
     private LocalDate issueDate;
     private LocalDate dueDate;
@@ -28,13 +34,18 @@ public class InvoiceResponse {
     public InvoiceResponse() {}
 
     public InvoiceResponse(Invoice invoice) {
+        this(invoice, invoice.getBillingAccount() != null ? 
+            new BillingAccountResponse(invoice.getBillingAccount()) : null);
+    }
+
+    public InvoiceResponse(Invoice invoice, BillingAccountResponse billingAccount) {
         this.id = invoice.getId();
         this.invoiceNumber = invoice.getInvoiceNumber();
-        this.billingAccount = invoice.getBillingAccount() != null ? 
-            new BillingAccountResponse(invoice.getBillingAccount()) : null;
+        this.billingAccount = billingAccount;
         this.amount = invoice.getAmount();
         this.taxAmount = invoice.getTaxAmount();
         this.totalAmount = invoice.getTotalAmount();
+        this.paidAmount = invoice.getPaidAmount();
         this.status = invoice.getStatus();
         this.issueDate = invoice.getIssueDate();
         this.dueDate = invoice.getDueDate();
@@ -72,6 +83,14 @@ public class InvoiceResponse {
         this.billingAccount = billingAccount;
     }
 
+    public Long getBillingAccountId() {
+        return billingAccountId;
+    }
+
+    public void setBillingAccountId(Long billingAccountId) {
+        this.billingAccountId = billingAccountId;
+    }
+
     public BigDecimal getAmount() {
         return amount;
     }
@@ -96,6 +115,14 @@ public class InvoiceResponse {
         this.totalAmount = totalAmount;
     }
 
+    public BigDecimal getPaidAmount() {
+        return paidAmount;
+    }
+
+    public void setPaidAmount(BigDecimal paidAmount) {
+        this.paidAmount = paidAmount;
+    }
+
     public Invoice.Status getStatus() {
         return status;
     }
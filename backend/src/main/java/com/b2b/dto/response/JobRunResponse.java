@@ -0,0 +1,62 @@
+package com.b2b.dto.response;
+
+import java.time.LocalDateTime;
+
+public class JobRunResponse {
+
+    private String job;
+    private String node;
+    private LocalDateTime startedAt;
+    private long durationMillis;
+    private long rowsAffected;
+
+    public JobRunResponse() {}
+
+    public JobRunResponse(String job, String node, LocalDateTime startedAt, long durationMillis, long rowsAffected) {
+        this.job = job;
+        this.node = node;
+        this.startedAt = startedAt;
+        this.durationMillis = durationMillis;
+        this.rowsAffected = rowsAffected;
+    }
+
+    public String getJob() {
+        return job;
+    }
+
+    public void setJob(String job) {
+        this.job = job;
+    }
+
+    public String getNode() {
+        return node;
+    }
+
+    public void setNode(String node) {
+        this.node = node;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public long getRowsAffected() {
+        return rowsAffected;
+    }
+
+    public void setRowsAffected(long rowsAffected) {
+        this.rowsAffected = rowsAffected;
+    }
+}
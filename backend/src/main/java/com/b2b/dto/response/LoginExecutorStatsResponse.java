@@ -0,0 +1,92 @@
+package com.b2b.dto.response;
+
+public class LoginExecutorStatsResponse {
+
+    private int poolSize;
+    private int activeCount;
+    private int queueDepth;
+    private int queueCapacity;
+    private long completedCount;
+    private long rejectedCount;
+    private double averageHashMillis;
+    private double maxHashMillis;
+
+    public LoginExecutorStatsResponse() {}
+
+    public LoginExecutorStatsResponse(int poolSize, int activeCount, int queueDepth, int queueCapacity,
+                                      long completedCount, long rejectedCount,
+                                      double averageHashMillis, double maxHashMillis) {
+        this.poolSize = poolSize;
+        this.activeCount = activeCount;
+        this.queueDepth = queueDepth;
+        this.queueCapacity = queueCapacity;
+        this.completedCount = completedCount;
+        this.rejectedCount = rejectedCount;
+        this.averageHashMillis = averageHashMillis;
+        this.maxHashMillis = maxHashMillis;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    public void setActiveCount(int activeCount) {
+        this.activeCount = activeCount;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public void setQueueDepth(int queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public long getCompletedCount() {
+        return completedCount;
+    }
+
+    public void setCompletedCount(long completedCount) {
+        this.completedCount = completedCount;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public void setRejectedCount(long rejectedCount) {
+        this.rejectedCount = rejectedCount;
+    }
+
+    public double getAverageHashMillis() {
+        return averageHashMillis;
+    }
+
+    public void setAverageHashMillis(double averageHashMillis) {
+        this.averageHashMillis = averageHashMillis;
+    }
+
+    public double getMaxHashMillis() {
+        return maxHashMillis;
+    }
+
+    public void setMaxHashMillis(double maxHashMillis) {
+        this.maxHashMillis = maxHashMillis;
+    }
+}
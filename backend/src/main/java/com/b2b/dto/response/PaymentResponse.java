@@ -1,6 +1,7 @@
 package com.b2b.dto.response;
 
 import com.b2b.entity.Payment;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -9,7 +10,11 @@ import java.time.LocalDateTime;
 public class PaymentResponse {
     
     private Long id;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private InvoiceResponse invoice;
+    /** Set instead of the nested object in the compact view; see {@link IncludedResources}. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long invoiceId;
     private BigDecimal amount;
     private Payment.PaymentMethod paymentMethod;
     private String paymentReference;
@@ -22,8 +27,12 @@ public class PaymentResponse {
     public PaymentResponse() {}
 
     public PaymentResponse(Payment payment) {
+        this(payment, payment.getInvoice() != null ? new InvoiceResponse(payment.getInvoice()) : null);
+    }
+
+    public PaymentResponse(Payment payment, InvoiceResponse invoice) {
         this.id = payment.getId();
-        this.invoice = payment.getInvoice() != null ? new InvoiceResponse(payment.getInvoice()) : null;
+        this.invoice = invoice;
         this.amount = payment.getAmount();
         this.paymentMethod = payment.getPaymentMethod();
         this.paymentReference = payment.getPaymentReference();
@@ -50,6 +59,14 @@ public class PaymentResponse {
         this.invoice = invoice;
     }
 
+    public Long getInvoiceId() {
+        return invoiceId;
+    }
+
+    public void setInvoiceId(Long invoiceId) {
+        this.invoiceId = invoiceId;
+    }
+
     public BigDecimal getAmount() {
         return amount;
     }
@@ -0,0 +1,52 @@
+package com.b2b.dto.response;
+
+import java.util.List;
+
+public class ReconciliationResponse {
+
+    private long checked;
+    private long mismatches;
+    private long repaired;
+    private List<Long> sampleIds;
+
+    public ReconciliationResponse() {}
+
+    public ReconciliationResponse(long checked, long mismatches, long repaired, List<Long> sampleIds) {
+        this.checked = checked;
+        this.mismatches = mismatches;
+        this.repaired = repaired;
+        this.sampleIds = sampleIds;
+    }
+
+    public long getChecked() {
+        return checked;
+    }
+
+    public void setChecked(long checked) {
+        this.checked = checked;
+    }
+
+    public long getMismatches() {
+        return mismatches;
+    }
+
+    public void setMismatches(long mismatches) {
+        this.mismatches = mismatches;
+    }
+
+    public long getRepaired() {
+        return repaired;
+    }
+
+    public void setRepaired(long repaired) {
+        this.repaired = repaired;
+    }
+
+    public List<Long> getSampleIds() {
+        return sampleIds;
+    }
+
+    public void setSampleIds(List<Long> sampleIds) {
+        this.sampleIds = sampleIds;
+    }
+}
@@ -1,6 +1,7 @@
 package com.b2b.dto.response;
 
 import com.b2b.entity.Store;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import java.time.LocalDateTime;
 
@@ -16,7 +17,11 @@ public class StoreResponse {
     private String country;
     private String phone;
     private String email;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private UserResponse manager;
+    /** Set instead of the nested object in the compact view; see {@link IncludedResources}. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long managerId;
     private Store.Status status;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -40,6 +45,25 @@ public class StoreResponse {
         this.updatedAt = store.getUpdatedAt();
     }
 
+    /** Shallow copy, so a cached snapshot is never modified through a response built from it. */
+    public StoreResponse(StoreResponse other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.description = other.description;
+        this.address = other.address;
+        this.city = other.city;
+        this.state = other.state;
+        this.zipCode = other.zipCode;
+        this.country = other.country;
+        this.phone = other.phone;
+        this.email = other.email;
+        this.manager = other.manager;
+        this.managerId = other.managerId;
+        this.status = other.status;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+    }
+
     public Long getId() {
         return id;
     }
@@ -128,6 +152,14 @@ public class StoreResponse {
         this.manager = manager;
     }
 
+    public Long getManagerId() {
+        return managerId;
+    }
+
+    public void setManagerId(Long managerId) {
+        this.managerId = managerId;
+    }
+
     public Store.Status getStatus() {
         return status;
     }
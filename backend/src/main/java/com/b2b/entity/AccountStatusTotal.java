@@ -0,0 +1,109 @@
+package com.b2b.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Running count and sum of invoices or payments per billing account and status.
+ * Maintained incrementally by {@link com.b2b.service.AccountTotalsService}.
+ */
+@Entity
+@Table(name = "account_status_totals")
+@IdClass(AccountStatusTotal.Key.class)
+public class AccountStatusTotal {
+
+    @Id
+    @Column(name = "billing_account_id")
+    private Long billingAccountId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind", length = 16)
+    private Kind kind;
+
+    @Id
+    @Column(name = "status", length = 16)
+    private String status;
+
+    @Column(name = "item_count", nullable = false)
+    private Long itemCount = 0L;
+
+    @Column(name = "total_amount", precision = 19, scale = 2, nullable = false)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    public enum Kind {
+        INVOICE, PAYMENT
+    }
+
+    public Long getBillingAccountId() {
+        return billingAccountId;
+    }
+
+    public void setBillingAccountId(Long billingAccountId) {
+        this.billingAccountId = billingAccountId;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public void setKind(Kind kind) {
+        this.kind = kind;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getItemCount() {
+        return itemCount;
+    }
+
+    public void setItemCount(Long itemCount) {
+        this.itemCount = itemCount;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public static class Key implements Serializable {
+        private Long billingAccountId;
+        private Kind kind;
+        private String status;
+
+        public Key() {}
+
+        public Key(Long billingAccountId, Kind kind, String status) {
+            this.billingAccountId = billingAccountId;
+            this.kind = kind;
+            this.status = status;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return Objects.equals(billingAccountId, key.billingAccountId)
+                && kind == key.kind
+                && Objects.equals(status, key.status);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(billingAccountId, kind, status);
+        }
+    }
+}
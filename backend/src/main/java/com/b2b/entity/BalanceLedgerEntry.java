@@ -0,0 +1,92 @@
+package com.b2b.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One movement of a billing account balance. Rows are only ever inserted;
+ * {@link com.b2b.service.BalanceSnapshotJob} folds them into
+ * {@link BillingAccount#getBalance()} periodically.
+ */
+@Entity
+@Table(name = "balance_ledger_entries", indexes = {
+    @Index(name = "idx_balance_ledger_account_id", columnList = "billing_account_id, id")
+})
+public class BalanceLedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "billing_account_id", nullable = false, updatable = false)
+    private Long billingAccountId;
+
+    @Column(precision = 15, scale = 2, nullable = false, updatable = false)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", length = 16, nullable = false, updatable = false)
+    private EntryType entryType;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public BalanceLedgerEntry() {}
+
+    public BalanceLedgerEntry(Long billingAccountId, BigDecimal amount, EntryType entryType) {
+        this.billingAccountId = billingAccountId;
+        this.amount = amount;
+        this.entryType = entryType;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    public enum EntryType {
+        OPENING, ADJUSTMENT
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getBillingAccountId() {
+        return billingAccountId;
+    }
+
+    public void setBillingAccountId(Long billingAccountId) {
+        this.billingAccountId = billingAccountId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public EntryType getEntryType() {
+        return entryType;
+    }
+
+    public void setEntryType(EntryType entryType) {
+        this.entryType = entryType;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
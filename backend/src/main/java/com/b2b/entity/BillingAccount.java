@@ -3,13 +3,21 @@ package com.b2b.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "billing_accounts")
+@Table(name = "billing_accounts", indexes = {
+    @Index(name = "idx_billing_accounts_created_id", columnList = "created_at, id"),
+    @Index(name = "idx_billing_accounts_name_id", columnList = "account_name, id")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "billing-accounts")
 public class BillingAccount {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -28,9 +36,17 @@ public class BillingAccount {
     @Column(name = "account_type")
     private AccountType accountType = AccountType.CREDIT;
 
-    @Column(precision = 15, scale = 2)
+    /**
+     * Balance as of ledger entry {@link #balanceSnapshotEntryId}; later entries are added on read.
+     * Only the snapshot job writes these two columns after insert.
+     */
+    @Column(precision = 15, scale = 2, updatable = false)
     private BigDecimal balance = BigDecimal.ZERO;
 
+    @ColumnDefault("0")
+    @Column(name = "balance_snapshot_entry_id", nullable = false, updatable = false)
+    private Long balanceSnapshotEntryId = 0L;
+
     @Column(name = "credit_limit", precision = 15, scale = 2)
     private BigDecimal creditLimit = BigDecimal.ZERO;
 
@@ -108,6 +124,14 @@ public class BillingAccount {
         this.balance = balance;
     }
 
+    public Long getBalanceSnapshotEntryId() {
+        return balanceSnapshotEntryId;
+    }
+
+    public void setBalanceSnapshotEntryId(Long balanceSnapshotEntryId) {
+        this.balanceSnapshotEntryId = balanceSnapshotEntryId;
+    }
+
     public BigDecimal getCreditLimit() {
         return creditLimit;
     }
@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -11,10 +13,33 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "invoices")
+@Table(name = "invoices", indexes = {
+    @Index(name = "idx_invoices_created_id", columnList = "created_at, id"),
+    @Index(name = "idx_invoices_due_id", columnList = "due_date, id"),
+    @Index(name = "idx_invoices_issue_id", columnList = "issue_date, id"),
+    @Index(name = "idx_invoices_status_due_id", columnList = "status, due_date, id")
+})
+@NamedEntityGraph(
+    name = Invoice.GRAPH_ACCOUNT,
+    attributeNodes = @NamedAttributeNode("billingAccount")
+)
+@NamedEntityGraph(
+    name = Invoice.GRAPH_DETAIL,
+    attributeNodes = {
+        @NamedAttributeNode("billingAccount"),
+        @NamedAttributeNode("invoiceItems")
+    }
+)
 public class Invoice {
+    /** The billing account; the store and its manager come from StoreDirectoryCache when mapping. */
+    public static final String GRAPH_ACCOUNT = "Invoice.account";
+    /** As {@link #GRAPH_ACCOUNT} plus the items; for single-invoice reads only, not for paged queries. */
+    public static final String GRAPH_DETAIL = "Invoice.detail";
+
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invoice_id_gen")
+    @SequenceGenerator(name = "invoice_id_gen", sequenceName = "invoice_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -37,9 +62,20 @@ public class Invoice {
     @Column(name = "total_amount", precision = 15, scale = 2)
     private BigDecimal totalAmount;
 
+    /** Sum of COMPLETED payments, kept in step by PaymentService. */
+    @ColumnDefault("0")
+    @Column(name = "paid_amount", precision = 15, scale = 2, nullable = false)
+    private BigDecimal paidAmount = BigDecimal.ZERO;
+
     @Enumerated(EnumType.STRING)
     private Status status = Status.DRAFT;
 
+    /** Bumped on every write; payments posting against the same invoice conflict on it and retry. */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @NotNull
     @Column(name = "issue_date")
     private LocalDate issueDate;
@@ -54,7 +90,9 @@ public class Invoice {
     @Column(columnDefinition = "TEXT")
     private String description;
 
+    // Items of a whole page of invoices are loaded in one IN query instead of one query each
     @OneToMany(mappedBy = "invoice", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     private List<InvoiceItem> invoiceItems;
 
     @OneToMany(mappedBy = "invoice", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
@@ -129,6 +167,18 @@ public class Invoice {
         this.totalAmount = totalAmount;
     }
 
+    public BigDecimal getPaidAmount() {
+        return paidAmount;
+    }
+
+    public void setPaidAmount(BigDecimal paidAmount) {
+        this.paidAmount = paidAmount;
+    }
+
+    public BigDecimal getRemainingAmount() {
+        return totalAmount.subtract(paidAmount);
+    }
+
     public Status getStatus() {
         return status;
     }
@@ -137,6 +187,14 @@ public class Invoice {
         this.status = status;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public LocalDate getIssueDate() {
         return issueDate;
     }
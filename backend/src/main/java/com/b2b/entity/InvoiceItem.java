@@ -12,7 +12,8 @@ import java.time.LocalDateTime;
 @Table(name = "invoice_items")
 public class InvoiceItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invoice_item_id_gen")
+    @SequenceGenerator(name = "invoice_item_id_gen", sequenceName = "invoice_item_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
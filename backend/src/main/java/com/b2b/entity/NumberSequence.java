@@ -0,0 +1,37 @@
+package com.b2b.entity;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "number_sequences")
+public class NumberSequence {
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+
+    public NumberSequence() {}
+
+    public NumberSequence(String name, Long nextValue) {
+        this.name = name;
+        this.nextValue = nextValue;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getNextValue() {
+        return nextValue;
+    }
+
+    public void setNextValue(Long nextValue) {
+        this.nextValue = nextValue;
+    }
+}
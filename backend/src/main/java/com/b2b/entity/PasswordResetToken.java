@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "password_reset_tokens")
+@Table(name = "password_reset_tokens", indexes = {
+    @Index(name = "idx_password_reset_tokens_expiry", columnList = "expiry_date"),
+    @Index(name = "idx_password_reset_tokens_used", columnList = "used")
+})
 public class PasswordResetToken {
     
     @Id
@@ -18,13 +21,13 @@ public class PasswordResetToken {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
     
-    @Column(nullable = false)
+    @Column(name = "expiry_date", nullable = false)
     private LocalDateTime expiryDate;
     
     @Column(nullable = false)
     private LocalDateTime createdAt;
     
-    @Column(nullable = false)
+    @Column(name = "used", nullable = false)
     private Boolean used = false;
 
     public PasswordResetToken() {
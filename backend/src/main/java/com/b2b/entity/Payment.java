@@ -9,7 +9,11 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+    @Index(name = "idx_payments_date_id", columnList = "payment_date, id"),
+    @Index(name = "idx_payments_created_id", columnList = "created_at, id"),
+    @Index(name = "idx_payments_status_date_id", columnList = "status, payment_date, id")
+})
 public class Payment {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
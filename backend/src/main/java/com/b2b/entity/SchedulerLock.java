@@ -0,0 +1,51 @@
+package com.b2b.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "scheduler_locks")
+public class SchedulerLock {
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(name = "locked_until", nullable = false)
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "locked_by")
+    private String lockedBy;
+
+    public SchedulerLock() {}
+
+    public SchedulerLock(String name, LocalDateTime lockedUntil, String lockedBy) {
+        this.name = name;
+        this.lockedUntil = lockedUntil;
+        this.lockedBy = lockedBy;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public LocalDateTime getLockedUntil() {
+        return lockedUntil;
+    }
+
+    public void setLockedUntil(LocalDateTime lockedUntil) {
+        this.lockedUntil = lockedUntil;
+    }
+
+    public String getLockedBy() {
+        return lockedBy;
+    }
+
+    public void setLockedBy(String lockedBy) {
+        this.lockedBy = lockedBy;
+    }
+}
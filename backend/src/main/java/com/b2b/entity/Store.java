@@ -3,12 +3,16 @@ package com.b2b.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
 @Table(name = "stores")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "stores")
 public class Store {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,12 @@
+package com.b2b.exception;
+
+public class ConcurrentUpdateException extends RuntimeException {
+    
+    public ConcurrentUpdateException(String message) {
+        super(message);
+    }
+    
+    public ConcurrentUpdateException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,12 @@
+package com.b2b.exception;
+
+public class TooManyRequestsException extends RuntimeException {
+    
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+    
+    public TooManyRequestsException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
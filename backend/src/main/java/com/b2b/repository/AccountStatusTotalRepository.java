@@ -0,0 +1,56 @@
+package com.b2b.repository;
+
+import com.b2b.entity.AccountStatusTotal;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+
+@Repository
+public interface AccountStatusTotalRepository extends JpaRepository<AccountStatusTotal, AccountStatusTotal.Key> {
+    
+    // Native writes name the table they touch; without it Hibernate evicts every second-level cache region
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "account_status_totals"))
+    @Query(value = "INSERT INTO account_status_totals (billing_account_id, kind, status, item_count, total_amount) " +
+                   "VALUES (:accountId, :kind, :status, :countDelta, :amountDelta) " +
+                   "ON DUPLICATE KEY UPDATE item_count = item_count + :countDelta, " +
+                   "total_amount = total_amount + :amountDelta",
+           nativeQuery = true)
+    int applyDelta(@Param("accountId") Long accountId, 
+                   @Param("kind") String kind, 
+                   @Param("status") String status,
+                   @Param("countDelta") long countDelta, 
+                   @Param("amountDelta") BigDecimal amountDelta);
+    
+    @Query("SELECT COALESCE(SUM(t.itemCount), 0) FROM AccountStatusTotal t " +
+           "WHERE t.billingAccountId = :accountId AND t.kind = :kind")
+    long sumItemCount(@Param("accountId") Long accountId, @Param("kind") AccountStatusTotal.Kind kind);
+    
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "account_status_totals"))
+    @Query(value = "DELETE FROM account_status_totals", nativeQuery = true)
+    int deleteAllRows();
+    
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "account_status_totals"))
+    @Query(value = "INSERT INTO account_status_totals (billing_account_id, kind, status, item_count, total_amount) " +
+                   "SELECT billing_account_id, 'INVOICE', status, COUNT(*), COALESCE(SUM(total_amount), 0) " +
+                   "FROM invoices GROUP BY billing_account_id, status",
+           nativeQuery = true)
+    int rebuildInvoiceTotals();
+    
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "account_status_totals"))
+    @Query(value = "INSERT INTO account_status_totals (billing_account_id, kind, status, item_count, total_amount) " +
+                   "SELECT i.billing_account_id, 'PAYMENT', p.status, COUNT(*), COALESCE(SUM(p.amount), 0) " +
+                   "FROM payments p JOIN invoices i ON i.id = p.invoice_id GROUP BY i.billing_account_id, p.status",
+           nativeQuery = true)
+    int rebuildPaymentTotals();
+}
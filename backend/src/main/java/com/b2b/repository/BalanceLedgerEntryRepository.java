@@ -0,0 +1,45 @@
+package com.b2b.repository;
+
+import com.b2b.entity.BalanceLedgerEntry;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BalanceLedgerEntryRepository extends JpaRepository<BalanceLedgerEntry, Long> {
+    
+    Page<BalanceLedgerEntry> findByBillingAccountIdOrderByIdDesc(Long billingAccountId, Pageable pageable);
+    
+    @Query("SELECT COALESCE(SUM(e.amount), 0) FROM BalanceLedgerEntry e " +
+           "WHERE e.billingAccountId = :accountId AND e.id > :afterId")
+    BigDecimal sumAfter(@Param("accountId") Long accountId, @Param("afterId") Long afterId);
+    
+    /** Rows are [billingAccountId, sum(amount)] of the entries not yet folded into each account's balance. */
+    @Query("SELECT e.billingAccountId, SUM(e.amount) FROM BalanceLedgerEntry e, BillingAccount ba " +
+           "WHERE ba.id = e.billingAccountId AND e.billingAccountId IN :accountIds " +
+           "AND e.id > ba.balanceSnapshotEntryId GROUP BY e.billingAccountId")
+    List<Object[]> sumPendingByAccount(@Param("accountIds") Collection<Long> accountIds);
+    
+    /** Accounts with entries recorded after their snapshot, as far as this transaction can see. */
+    @Query(value = "SELECT DISTINCT e.billing_account_id FROM balance_ledger_entries e " +
+                   "JOIN billing_accounts ba ON ba.id = e.billing_account_id " +
+                   "WHERE e.id > ba.balance_snapshot_entry_id LIMIT :limit",
+           nativeQuery = true)
+    List<Long> findAccountIdsWithPendingEntries(@Param("limit") int limit);
+    
+    /**
+     * One row of [sum(amount), max(id)] over the account's entries after {@code afterId}. A locking
+     * read, so it sees the latest committed entries rather than the transaction's snapshot.
+     */
+    @Query(value = "SELECT COALESCE(SUM(amount), 0), MAX(id) FROM balance_ledger_entries " +
+                   "WHERE billing_account_id = :accountId AND id > :afterId FOR SHARE",
+           nativeQuery = true)
+    List<Object[]> sumAfterForShare(@Param("accountId") Long accountId, @Param("afterId") long afterId);
+}
@@ -2,19 +2,28 @@ package com.b2b.repository;
 
 import com.b2b.entity.BillingAccount;
 import com.b2b.entity.Store;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface BillingAccountRepository extends JpaRepository<BillingAccount, Long> {
     
+    /** Sum of the ledger entries recorded since the account's balance snapshot. */
+    String PENDING_LEDGER_SUM = "COALESCE((SELECT SUM(e.amount) FROM BalanceLedgerEntry e " +
+        "WHERE e.billingAccountId = ba.id AND e.id > ba.balanceSnapshotEntryId), 0)";
+    
     List<BillingAccount> findByStore(Store store);
     
     Page<BillingAccount> findByStore(Store store, Pageable pageable);
@@ -25,9 +34,21 @@ public interface BillingAccountRepository extends JpaRepository<BillingAccount,
     
     List<BillingAccount> findByAccountType(BillingAccount.AccountType accountType);
     
+    /**
+     * Accounts of one store. Results sit in the query cache and resolve through the billing-accounts
+     * region; any write to billing_accounts, including the native snapshot fold, invalidates them.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "billing-account-lookups")
+    })
     @Query("SELECT ba FROM BillingAccount ba WHERE ba.store.id = :storeId")
     List<BillingAccount> findByStoreId(@Param("storeId") Long storeId);
     
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "billing-account-lookups")
+    })
     @Query("SELECT ba FROM BillingAccount ba WHERE ba.store.id = :storeId AND ba.status = :status")
     List<BillingAccount> findByStoreIdAndStatus(@Param("storeId") Long storeId, 
                                                 @Param("status") BillingAccount.Status status);
@@ -37,13 +58,40 @@ public interface BillingAccountRepository extends JpaRepository<BillingAccount,
            "LOWER(ba.store.name) LIKE LOWER(CONCAT('%', :search, '%')))")
     Page<BillingAccount> findBySearchTerm(@Param("search") String search, Pageable pageable);
     
-    @Query("SELECT ba FROM BillingAccount ba WHERE ba.balance < :threshold")
+    @Query("SELECT ba FROM BillingAccount ba WHERE ba.balance + " + PENDING_LEDGER_SUM + " < :threshold")
     List<BillingAccount> findAccountsWithLowBalance(@Param("threshold") BigDecimal threshold);
     
     @Query("SELECT ba FROM BillingAccount ba WHERE ba.accountType = 'CREDIT' AND " +
-           "ba.balance > ba.creditLimit")
+           "ba.balance + " + PENDING_LEDGER_SUM + " > ba.creditLimit")
     List<BillingAccount> findOverCreditLimitAccounts();
     
+    /**
+     * Shared lock on the account row, taken before a ledger entry is inserted. Writers of one
+     * account share it with each other, so they never queue behind one another; only a snapshot
+     * fold, which takes it exclusively, waits for their commits.
+     */
+    @Query(value = "SELECT id FROM billing_accounts WHERE id = :id FOR SHARE", nativeQuery = true)
+    Long lockForLedgerEntry(@Param("id") Long id);
+    
+    /**
+     * Exclusive lock on the account row for a snapshot fold; returns the snapshot entry id. Once it
+     * is granted, every ledger entry of the account is committed and no new one can be inserted.
+     */
+    @Query(value = "SELECT balance_snapshot_entry_id FROM billing_accounts WHERE id = :id FOR UPDATE",
+           nativeQuery = true)
+    Long lockForSnapshot(@Param("id") Long id);
+    
+    /** The native space hint limits cache eviction to the billing-accounts region. */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "billing_accounts"))
+    @Query(value = "UPDATE billing_accounts SET balance = COALESCE(balance, 0) + :delta, " +
+                   "balance_snapshot_entry_id = :toId, updated_at = :now WHERE id = :id",
+           nativeQuery = true)
+    int advanceSnapshot(@Param("id") Long id,
+                        @Param("delta") BigDecimal delta,
+                        @Param("toId") long toId,
+                        @Param("now") LocalDateTime now);
+    
     @Query("SELECT COUNT(ba) FROM BillingAccount ba WHERE ba.store.id = :storeId")
     long countByStoreId(@Param("storeId") Long storeId);
 }
\ No newline at end of file
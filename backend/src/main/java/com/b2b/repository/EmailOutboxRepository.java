@@ -0,0 +1,53 @@
+package com.b2b.repository;
+
+import com.b2b.entity.EmailOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+    
+    @Query("SELECT e.id FROM EmailOutbox e WHERE e.status = :status AND e.nextAttemptAt <= :now " +
+           "AND (e.claimedUntil IS NULL OR e.claimedUntil <= :now) ORDER BY e.nextAttemptAt, e.id")
+    List<Long> findClaimableIds(@Param("status") EmailOutbox.Status status, 
+                                @Param("now") LocalDateTime now, 
+                                Pageable pageable);
+    
+    /** Claims the rows nobody else holds; rows claimed by another dispatcher in the meantime are skipped. */
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox e SET e.claimedBy = :claim, e.claimedUntil = :until " +
+           "WHERE e.id IN :ids AND e.status = :status AND (e.claimedUntil IS NULL OR e.claimedUntil <= :now)")
+    int claim(@Param("ids") Collection<Long> ids, 
+              @Param("status") EmailOutbox.Status status, 
+              @Param("claim") String claim, 
+              @Param("now") LocalDateTime now, 
+              @Param("until") LocalDateTime until);
+    
+    List<EmailOutbox> findByClaimedByOrderById(String claimedBy);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox e SET e.status = :status, e.sentAt = :sentAt, e.lastError = NULL, " +
+           "e.claimedBy = NULL, e.claimedUntil = NULL WHERE e.id IN :ids")
+    int markSent(@Param("ids") List<Long> ids, 
+                 @Param("status") EmailOutbox.Status status, 
+                 @Param("sentAt") LocalDateTime sentAt);
+    
+    /** Sent and abandoned rows older than the cutoff; their bodies may carry reset tokens. */
+    @Query("SELECT e.id FROM EmailOutbox e WHERE e.status <> :pending AND e.createdAt < :cutoff ORDER BY e.id")
+    List<Long> findPurgeableIds(@Param("pending") EmailOutbox.Status pending, 
+                                @Param("cutoff") LocalDateTime cutoff, 
+                                Pageable pageable);
+    
+    long countByStatus(EmailOutbox.Status status);
+}
@@ -2,54 +2,128 @@ package com.b2b.repository;
 
 import com.b2b.entity.BillingAccount;
 import com.b2b.entity.Invoice;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     
+    @EntityGraph(Invoice.GRAPH_DETAIL)
     Optional<Invoice> findByInvoiceNumber(String invoiceNumber);
     
+    @EntityGraph(Invoice.GRAPH_DETAIL)
+    @Query("SELECT i FROM Invoice i WHERE i.id = :id")
+    Optional<Invoice> findDetailById(@Param("id") Long id);
+    
+    /** Loads the invoice and bumps its version at commit, so concurrent writers to the same invoice conflict. */
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("SELECT i FROM Invoice i WHERE i.id = :id")
+    Optional<Invoice> findByIdForPayment(@Param("id") Long id);
+    
+    @EntityGraph(Invoice.GRAPH_ACCOUNT)
+    @Override
+    Page<Invoice> findAll(Pageable pageable);
+    
     boolean existsByInvoiceNumber(String invoiceNumber);
     
+    @EntityGraph(Invoice.GRAPH_ACCOUNT)
+    List<Invoice> findByIdIn(Collection<Long> ids);
+    
+    @EntityGraph(Invoice.GRAPH_ACCOUNT)
     List<Invoice> findByBillingAccount(BillingAccount billingAccount);
     
+    @EntityGraph(Invoice.GRAPH_ACCOUNT)
     Page<Invoice> findByBillingAccount(BillingAccount billingAccount, Pageable pageable);
     
     List<Invoice> findByStatus(Invoice.Status status);
     
+    @EntityGraph(Invoice.GRAPH_ACCOUNT)
     Page<Invoice> findByStatus(Invoice.Status status, Pageable pageable);
     
     @Query("SELECT i FROM Invoice i WHERE i.billingAccount.id = :billingAccountId")
     List<Invoice> findByBillingAccountId(@Param("billingAccountId") Long billingAccountId);
     
+    @EntityGraph(Invoice.GRAPH_ACCOUNT)
     @Query("SELECT i FROM Invoice i WHERE i.billingAccount.store.id = :storeId")
     List<Invoice> findByStoreId(@Param("storeId") Long storeId);
     
+    @EntityGraph(Invoice.GRAPH_ACCOUNT)
     @Query("SELECT i FROM Invoice i WHERE i.billingAccount.store.id = :storeId")
     Page<Invoice> findByStoreId(@Param("storeId") Long storeId, Pageable pageable);
     
+    @EntityGraph(Invoice.GRAPH_ACCOUNT)
     @Query("SELECT i FROM Invoice i WHERE i.status = :status AND i.dueDate < :date")
     List<Invoice> findOverdueInvoices(@Param("status") Invoice.Status status, 
                                       @Param("date") LocalDate date);
     
+    /** Invoices already flipped to OVERDUE plus SENT ones past due that the engine has not reached yet. */
+    @EntityGraph(Invoice.GRAPH_ACCOUNT)
+    @Query("SELECT i FROM Invoice i WHERE i.status = 'OVERDUE' OR (i.status = 'SENT' AND i.dueDate < :date)")
+    List<Invoice> findOverdueOrPastDue(@Param("date") LocalDate date);
+    
+    /** Head of the overdue work queue, read from the (status, due_date, id) index. */
+    @Query("SELECT i.id FROM Invoice i WHERE i.status = :status AND i.dueDate < :date ORDER BY i.dueDate, i.id")
+    List<Long> findIdsByStatusDueBefore(@Param("status") Invoice.Status status, 
+                                        @Param("date") LocalDate date, 
+                                        Pageable pageable);
+    
+    /** Rows are [billingAccountId, count, sum(totalAmount)]. */
+    @Query("SELECT i.billingAccount.id, COUNT(i), SUM(i.totalAmount) FROM Invoice i " +
+           "WHERE i.id IN :ids AND i.status = :status GROUP BY i.billingAccount.id")
+    List<Object[]> sumByAccountForIds(@Param("ids") Collection<Long> ids, 
+                                      @Param("status") Invoice.Status status);
+    
+    @Modifying
+    @Query("UPDATE Invoice i SET i.status = :to, i.updatedAt = :now, i.version = i.version + 1 WHERE i.id IN :ids AND i.status = :from")
+    int transitionStatus(@Param("ids") Collection<Long> ids, 
+                         @Param("from") Invoice.Status from, 
+                         @Param("to") Invoice.Status to, 
+                         @Param("now") LocalDateTime now);
+    
+    @EntityGraph(Invoice.GRAPH_ACCOUNT)
     @Query("SELECT i FROM Invoice i WHERE i.dueDate BETWEEN :startDate AND :endDate")
     List<Invoice> findInvoicesDueBetween(@Param("startDate") LocalDate startDate, 
                                          @Param("endDate") LocalDate endDate);
     
+    /**
+     * Forward-only cursor for exports. On MySQL a fetch size of Integer.MIN_VALUE makes
+     * Connector/J stream rows instead of buffering the whole result; the connection
+     * cannot run other statements until the stream is closed, hence the join fetch.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT i FROM Invoice i JOIN FETCH i.billingAccount " +
+           "WHERE i.dueDate BETWEEN :startDate AND :endDate ORDER BY i.dueDate, i.id")
+    Stream<Invoice> streamInvoicesDueBetween(@Param("startDate") LocalDate startDate, 
+                                             @Param("endDate") LocalDate endDate);
+    
+    @EntityGraph(Invoice.GRAPH_ACCOUNT)
     @Query("SELECT i FROM Invoice i WHERE i.issueDate BETWEEN :startDate AND :endDate")
     List<Invoice> findInvoicesIssuedBetween(@Param("startDate") LocalDate startDate, 
                                             @Param("endDate") LocalDate endDate);
     
+    @EntityGraph(Invoice.GRAPH_ACCOUNT)
     @Query("SELECT i FROM Invoice i WHERE " +
            "(LOWER(i.invoiceNumber) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
            "LOWER(i.description) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
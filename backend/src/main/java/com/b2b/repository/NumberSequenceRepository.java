@@ -0,0 +1,30 @@
+package com.b2b.repository;
+
+import com.b2b.entity.NumberSequence;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface NumberSequenceRepository extends JpaRepository<NumberSequence, String> {
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM NumberSequence s WHERE s.name = :name")
+    Optional<NumberSequence> findByNameForUpdate(@Param("name") String name);
+    
+    /** Creates the sequence row if it is missing; a no-op when it already exists. */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "number_sequences"))
+    @Query(value = "INSERT IGNORE INTO number_sequences (name, next_value) VALUES (:name, :initialValue)",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name, @Param("initialValue") long initialValue);
+}
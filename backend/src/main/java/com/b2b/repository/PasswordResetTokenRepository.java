@@ -2,6 +2,7 @@ package com.b2b.repository;
 
 import com.b2b.entity.PasswordResetToken;
 import com.b2b.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -9,6 +10,7 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -25,6 +27,9 @@ public interface PasswordResetTokenRepository extends JpaRepository<PasswordRese
     @Query("DELETE FROM PasswordResetToken p WHERE p.expiryDate < ?1")
     void deleteExpiredTokens(LocalDateTime now);
     
+    @Query("SELECT p.id FROM PasswordResetToken p WHERE p.expiryDate < ?1 OR p.used = true ORDER BY p.id")
+    List<Long> findPurgeableIds(LocalDateTime now, Pageable pageable);
+    
     @Query("SELECT COUNT(p) FROM PasswordResetToken p WHERE p.user = ?1 AND p.createdAt > ?2")
     Long countRecentTokensForUser(User user, LocalDateTime since);
 }
\ No newline at end of file
@@ -2,20 +2,29 @@ package com.b2b.repository;
 
 import com.b2b.entity.Invoice;
 import com.b2b.entity.Payment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     
+    @EntityGraph(attributePaths = {"invoice.billingAccount"})
+    List<Payment> findByIdIn(Collection<Long> ids);
+    
     List<Payment> findByInvoice(Invoice invoice);
     
     Page<Payment> findByInvoice(Invoice invoice, Pageable pageable);
@@ -39,6 +48,18 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     List<Payment> findPaymentsBetweenDates(@Param("startDate") LocalDate startDate, 
                                            @Param("endDate") LocalDate endDate);
     
+    /** Forward-only cursor for exports, see {@link InvoiceRepository#streamInvoicesDueBetween}. */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Payment p JOIN FETCH p.invoice i JOIN FETCH i.billingAccount " +
+           "WHERE p.paymentDate BETWEEN :startDate AND :endDate AND (:status IS NULL OR p.status = :status) " +
+           "ORDER BY p.paymentDate, p.id")
+    Stream<Payment> streamPaymentsBetweenDates(@Param("startDate") LocalDate startDate, 
+                                               @Param("endDate") LocalDate endDate,
+                                               @Param("status") Payment.Status status);
+    
     @Query("SELECT p FROM Payment p WHERE p.status = :status AND " +
            "p.paymentDate BETWEEN :startDate AND :endDate")
     List<Payment> findByStatusAndPaymentDateBetween(@Param("status") Payment.Status status,
@@ -0,0 +1,123 @@
+package com.b2b.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sparse fieldsets: selects only the requested columns as a tuple query, so
+ * e.g. a TEXT description that the client did not ask for is never read.
+ * Rows come back as maps keyed by response field name, in request order.
+ */
+@Repository
+public class ProjectionQueryExecutor {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /** Splits a {@code fields} parameter ("id,status,dueDate") into field names; id is always included. */
+    public static Set<String> parseFields(String fields) {
+        Set<String> parsed = new LinkedHashSet<>();
+        parsed.add("id");
+        Arrays.stream(fields.split(","))
+            .map(String::trim)
+            .filter(field -> !field.isEmpty())
+            .forEach(parsed::add);
+        return parsed;
+    }
+
+    /**
+     * @param selectable response field name to attribute path, e.g. "billingAccountId" to "billingAccount.id";
+     *                   paths may only follow to-one associations by id so no join is needed
+     * @param filters    equality filters on attributes, null values are ignored
+     */
+    public <T> Page<Map<String, Object>> select(Class<T> entityType, Map<String, String> selectable, Set<String> fields,
+                                                Map<String, Object> filters, Pageable pageable) {
+        for (String field : fields) {
+            if (!selectable.containsKey(field)) {
+                throw new IllegalArgumentException("Unknown field '" + field + "', allowed: " + selectable.keySet());
+            }
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(entityType);
+
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            selections.add(path(root, selectable.get(field)).alias(field));
+        }
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : pageable.getSort()) {
+            if (!selectable.containsKey(order.getProperty())) {
+                throw new IllegalArgumentException("Cannot sort on '" + order.getProperty() + "'");
+            }
+            Path<?> path = path(root, selectable.get(order.getProperty()));
+            orders.add(order.isAscending() ? cb.asc(path) : cb.desc(path));
+        }
+        query.multiselect(selections)
+            .where(filterPredicates(cb, root, filters).toArray(new Predicate[0]))
+            .orderBy(orders);
+
+        List<Tuple> tuples = entityManager.createQuery(query)
+            .setFirstResult((int) pageable.getOffset())
+            .setMaxResults(pageable.getPageSize())
+            .getResultList();
+
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : fields) {
+                row.put(field, tuple.get(field));
+            }
+            rows.add(row);
+        }
+        return new PageImpl<>(rows, pageable, count(entityType, filters));
+    }
+
+    private <T> long count(Class<T> entityType, Map<String, Object> filters) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(entityType);
+        query.select(cb.count(root)).where(filterPredicates(cb, root, filters).toArray(new Predicate[0]));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private <T> List<Predicate> filterPredicates(CriteriaBuilder cb, Root<T> root, Map<String, Object> filters) {
+        List<Predicate> predicates = new ArrayList<>();
+        filters.forEach((attribute, value) -> {
+            if (value != null) {
+                predicates.add(cb.equal(root.get(attribute), value));
+            }
+        });
+        return predicates;
+    }
+
+    private static Path<?> path(Root<?> root, String attributePath) {
+        Path<?> path = root;
+        for (String attribute : attributePath.split("\\.")) {
+            path = path.get(attribute);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,38 @@
+package com.b2b.repository;
+
+import com.b2b.entity.SchedulerLock;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface SchedulerLockRepository extends JpaRepository<SchedulerLock, String> {
+    
+    @Modifying
+    @Query("UPDATE SchedulerLock l SET l.lockedUntil = :until, l.lockedBy = :owner " +
+           "WHERE l.name = :name AND (l.lockedUntil <= :now OR l.lockedBy = :owner)")
+    int tryAcquire(@Param("name") String name, 
+                   @Param("owner") String owner, 
+                   @Param("now") LocalDateTime now, 
+                   @Param("until") LocalDateTime until);
+    
+    /** Creates the row with an already expired lease if it is missing; a no-op when another node created it first. */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "scheduler_locks"))
+    @Query(value = "INSERT IGNORE INTO scheduler_locks (name, locked_until, locked_by) VALUES (:name, :expired, NULL)",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name, @Param("expired") LocalDateTime expired);
+    
+    @Modifying
+    @Query("UPDATE SchedulerLock l SET l.lockedUntil = :now WHERE l.name = :name AND l.lockedBy = :owner")
+    int release(@Param("name") String name, 
+                @Param("owner") String owner, 
+                @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,179 @@
+package com.b2b.repository;
+
+import com.b2b.dto.response.CursorPage;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keyset ("seek") pagination over (sort column, id). Instead of OFFSET, each
+ * page starts strictly after the last row of the previous one, e.g.
+ * {@code WHERE due_date > ? OR (due_date = ? AND id > ?) ORDER BY due_date, id LIMIT n+1},
+ * which an index on (due_date, id) answers without scanning skipped rows.
+ * The position is handed to the client as an opaque cursor.
+ */
+@Repository
+public class SeekQueryExecutor {
+
+    private static final String CURSOR_VERSION = "v1";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * @param sortableColumns the columns a caller may sort on; each should have a (column, id) index
+     * @param filters         equality filters on attributes, null values are ignored
+     * @param fetchGraph      optional entity graph name applied to the page query
+     */
+    public <T> CursorPage<T> seek(Class<T> entityType, Set<String> sortableColumns, String sortBy, boolean descending,
+                                  Map<String, Object> filters, String cursor, int size, boolean includeTotal,
+                                  String fetchGraph) {
+        if (!sortableColumns.contains(sortBy)) {
+            throw new IllegalArgumentException("Cannot seek on '" + sortBy + "', allowed: " + sortableColumns);
+        }
+        if (size < 1 || size > 1000) {
+            throw new IllegalArgumentException("Page size must be between 1 and 1000");
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(entityType);
+        Root<T> root = query.from(entityType);
+
+        List<Predicate> predicates = filterPredicates(cb, root, filters);
+        if (cursor != null && !cursor.isBlank()) {
+            predicates.add(afterCursor(cb, root, sortBy, descending, cursor));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+        if ("id".equals(sortBy)) {
+            query.orderBy(descending ? cb.desc(root.get("id")) : cb.asc(root.get("id")));
+        } else if (descending) {
+            query.orderBy(cb.desc(root.get(sortBy)), cb.desc(root.get("id")));
+        } else {
+            query.orderBy(cb.asc(root.get(sortBy)), cb.asc(root.get("id")));
+        }
+
+        TypedQuery<T> typedQuery = entityManager.createQuery(query).setMaxResults(size + 1);
+        if (fetchGraph != null) {
+            typedQuery.setHint("jakarta.persistence.fetchgraph", entityManager.getEntityGraph(fetchGraph));
+        }
+        List<T> rows = typedQuery.getResultList();
+
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = new ArrayList<>(rows.subList(0, size));
+            nextCursor = encodeCursor(sortBy, descending, rows.get(size - 1));
+        }
+        Long total = includeTotal ? count(entityType, filters) : null;
+        return new CursorPage<>(rows, size, nextCursor, total);
+    }
+
+    private <T> long count(Class<T> entityType, Map<String, Object> filters) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(entityType);
+        query.select(cb.count(root)).where(filterPredicates(cb, root, filters).toArray(new Predicate[0]));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private <T> List<Predicate> filterPredicates(CriteriaBuilder cb, Root<T> root, Map<String, Object> filters) {
+        List<Predicate> predicates = new ArrayList<>();
+        filters.forEach((attribute, value) -> {
+            if (value != null) {
+                predicates.add(cb.equal(root.get(attribute), value));
+            }
+        });
+        return predicates;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private <T> Predicate afterCursor(CriteriaBuilder cb, Root<T> root, String sortBy, boolean descending, String cursor) {
+        String[] parts = decodeCursor(cursor);
+        if (!sortBy.equals(parts[1]) || descending != "desc".equals(parts[2])) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort");
+        }
+        Path<Long> id = root.get("id");
+        Long lastId = Long.valueOf(parts[4]);
+        Predicate idAfter = descending ? cb.lessThan(id, lastId) : cb.greaterThan(id, lastId);
+        if ("id".equals(sortBy)) {
+            return idAfter;
+        }
+
+        Path<Comparable> column = root.get(sortBy);
+        Comparable lastValue = parseValue(column.getJavaType(), parts[3]);
+        Predicate columnAfter = descending ? cb.lessThan(column, lastValue) : cb.greaterThan(column, lastValue);
+        return cb.or(columnAfter, cb.and(cb.equal(column, lastValue), idAfter));
+    }
+
+    private String encodeCursor(String sortBy, boolean descending, Object lastRow) {
+        Object id = entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(lastRow);
+        Object value = "id".equals(sortBy) ? id : readAttribute(lastRow, sortBy);
+        String raw = String.join("|", CURSOR_VERSION, sortBy, descending ? "desc" : "asc",
+            String.valueOf(value), String.valueOf(id));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Returns [version, sortBy, direction, value, id]; the value may itself contain '|'. */
+    private String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] head = raw.split("\\|", 4);
+            int lastSeparator = head[3].lastIndexOf('|');
+            if (!CURSOR_VERSION.equals(head[0]) || lastSeparator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new String[] {head[0], head[1], head[2],
+                head[3].substring(0, lastSeparator), head[3].substring(lastSeparator + 1)};
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private Object readAttribute(Object entity, String attribute) {
+        try {
+            String getter = "get" + Character.toUpperCase(attribute.charAt(0)) + attribute.substring(1);
+            return entity.getClass().getMethod(getter).invoke(entity);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot read " + attribute + " from " + entity.getClass().getSimpleName(), e);
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private Comparable parseValue(Class<?> type, String value) {
+        try {
+            if (type == LocalDate.class) {
+                return LocalDate.parse(value);
+            }
+            if (type == LocalDateTime.class) {
+                return LocalDateTime.parse(value);
+            }
+            if (type == Long.class) {
+                return Long.valueOf(value);
+            }
+            if (type == BigDecimal.class) {
+                return new BigDecimal(value);
+            }
+            if (type == String.class) {
+                return value;
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        throw new IllegalArgumentException("Unsupported seek column type: " + type.getSimpleName());
+    }
+}
@@ -4,16 +4,26 @@ import com.b2b.entity.Store;
 import com.b2b.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface StoreRepository extends JpaRepository<Store, Long> {
     
+    @EntityGraph(attributePaths = {"manager"})
+    List<Store> findByIdIn(Collection<Long> ids);
+    
+    @EntityGraph(attributePaths = {"manager"})
+    @Query("SELECT s FROM Store s WHERE s.id = :id")
+    Optional<Store> findWithManagerById(@Param("id") Long id);
+    
     Page<Store> findByStatus(Store.Status status, Pageable pageable);
     
     List<Store> findByManager(User manager);
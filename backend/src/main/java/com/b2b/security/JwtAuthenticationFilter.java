@@ -1,6 +1,8 @@
 package com.b2b.security;
 
+import com.b2b.entity.User;
 import com.b2b.service.UserService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -25,28 +27,47 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                   FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-                UserDetails userDetails = userService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication = 
-                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            Claims claims = jwt != null ? jwtUtils.verifyJwtToken(jwt) : null;
+            if (claims != null) {
+                UserDetails userDetails = resolvePrincipal(claims);
+                if (userDetails.isEnabled()) {
+                    UsernamePasswordAuthenticationToken authentication = 
+                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
             }
         } catch (Exception e) {
-            System.err.println("Cannot set user authentication: " + e.getMessage());
+            // GenericFilterBean already provides a logger bound to this class
+            logger.error("Cannot set user authentication: " + e.getMessage(), e);
         }
 
         filterChain.doFilter(request, response);
     }
 
+    private UserDetails resolvePrincipal(Claims claims) {
+        if (jwtUtils.isStatelessClaimsEnabled()) {
+            User claimsUser = jwtUtils.principalFromClaims(claims);
+            if (claimsUser != null && !tokenRevocationList.isRevoked(claimsUser.getId(), claims.getIssuedAt())) {
+                return claimsUser;
+            }
+        }
+        // Tokens without claims, or whose claims are stale, are resolved from the user store
+        return principalCache.get(claims.getSubject(), userService::loadUserByUsername);
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
 
@@ -1,7 +1,13 @@
 package com.b2b.security;
 
+import com.b2b.cache.BoundedTtlCache;
+import com.b2b.dto.response.CacheStatsResponse;
+import com.b2b.entity.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -13,52 +19,138 @@ import java.util.Date;
 @Component
 public class JwtUtils {
 
+    private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
+
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_ROLE = "role";
+    private static final String CLAIM_ACTIVE = "active";
+
     @Value("${app.jwt.secret:mySecretKey}")
     private String jwtSecret;
 
     @Value("${app.jwt.expiration:86400000}")
     private int jwtExpirationMs;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    @Value("${app.jwt.stateless-claims:false}")
+    private boolean statelessClaims;
+
+    @Value("${app.jwt.verified-cache.enabled:false}")
+    private boolean verifiedCacheEnabled;
+
+    @Value("${app.jwt.verified-cache.max-size:10000}")
+    private int verifiedCacheMaxSize;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private BoundedTtlCache<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        // The key and parser are immutable and thread-safe, so build them once
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        if (verifiedCacheEnabled) {
+            verifiedTokens = new BoundedTtlCache<>(verifiedCacheMaxSize, jwtExpirationMs);
+        }
     }
 
     public String generateJwtToken(Authentication authentication) {
         UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
+        if (statelessClaims && userPrincipal instanceof User user) {
+            return generateTokenWithClaims(user);
+        }
         return generateTokenFromUsername(userPrincipal.getUsername());
     }
 
+    public String generateTokenWithClaims(User user) {
+        return Jwts.builder()
+                .setSubject(user.getUsername())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_ROLE, user.getRole().name())
+                .claim(CLAIM_ACTIVE, user.getIsActive())
+                .setIssuedAt(new Date())
+                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
+                .signWith(signingKey, SignatureAlgorithm.HS512)
+                .compact();
+    }
+
     public String generateTokenFromUsername(String username) {
         return Jwts.builder()
                 .setSubject(username)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
-    public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
-    }
+    /**
+     * Verifies the token signature and expiry exactly once and returns its
+     * claims, or {@code null} if the token is not valid. Recently verified
+     * tokens are served from a cache (when enabled) until they expire.
+     */
+    public Claims verifyJwtToken(String token) {
+        if (verifiedTokens != null && token != null) {
+            Claims cached = verifiedTokens.get(token);
+            if (cached != null) {
+                return cached;
+            }
+        }
 
-    public boolean validateJwtToken(String authToken) {
         try {
-            Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(authToken);
-            return true;
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            if (verifiedTokens != null && claims.getExpiration() != null) {
+                verifiedTokens.put(token, claims, claims.getExpiration().getTime());
+            }
+            return claims;
         } catch (MalformedJwtException e) {
-            System.err.println("Invalid JWT token: " + e.getMessage());
+            logger.warn("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
-            System.err.println("JWT token is expired: " + e.getMessage());
+            logger.debug("JWT token is expired: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
-            System.err.println("JWT token is unsupported: " + e.getMessage());
+            logger.warn("JWT token is unsupported: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
-            System.err.println("JWT claims string is empty: " + e.getMessage());
+            logger.warn("JWT claims string is empty: {}", e.getMessage());
+        } catch (JwtException e) {
+            logger.warn("JWT signature is invalid: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    public String getUserNameFromJwtToken(String token) {
+        Claims claims = verifyJwtToken(token);
+        return claims != null ? claims.getSubject() : null;
+    }
+
+    public boolean validateJwtToken(String authToken) {
+        return verifyJwtToken(authToken) != null;
+    }
+
+    public boolean isStatelessClaimsEnabled() {
+        return statelessClaims;
+    }
+
+    /**
+     * Builds a detached principal from the id, role and active flag carried
+     * by a stateless token, or returns {@code null} if the token does not
+     * carry them. The returned user has no email, name or password.
+     */
+    public User principalFromClaims(Claims claims) {
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        Boolean active = claims.get(CLAIM_ACTIVE, Boolean.class);
+        if (userId == null || role == null || active == null) {
+            return null;
         }
-        return false;
+
+        User user = new User();
+        user.setId(userId.longValue());
+        user.setUsername(claims.getSubject());
+        user.setRole(User.Role.valueOf(role));
+        user.setIsActive(active);
+        return user;
+    }
+
+    public CacheStatsResponse verifiedCacheStats() {
+        return verifiedTokens != null ? new CacheStatsResponse("verified-jwt", verifiedTokens) : null;
     }
-}
\ No newline at end of file
+}
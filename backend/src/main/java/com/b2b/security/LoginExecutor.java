@@ -0,0 +1,93 @@
+package com.b2b.security;
+
+import com.b2b.dto.response.LoginExecutorStatsResponse;
+import com.b2b.exception.TooManyRequestsException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs password verification on a small dedicated pool so that a burst of
+ * logins cannot tie up the request threads. Work beyond the queue limit is
+ * rejected immediately instead of waiting.
+ */
+@Component
+public class LoginExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder hashCount = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+
+    public LoginExecutor(@Value("${app.security.login-executor.pool-size:0}") int poolSize,
+                         @Value("${app.security.login-executor.queue-capacity:100}") int queueCapacity) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.queueCapacity = queueCapacity;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "login-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(() -> timed(task), executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new TooManyRequestsException("Too many login attempts in progress. Please retry shortly.");
+        }
+    }
+
+    private <T> T timed(Supplier<T> task) {
+        long start = System.nanoTime();
+        try {
+            return task.get();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            hashCount.increment();
+            hashNanos.add(elapsed);
+            maxHashNanos.accumulateAndGet(elapsed, Math::max);
+            // Worker threads are pooled, never leak one login's context into the next
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    public LoginExecutorStatsResponse stats() {
+        long count = hashCount.sum();
+        double averageMillis = count > 0 ? hashNanos.sum() / 1_000_000.0 / count : 0.0;
+        return new LoginExecutorStatsResponse(
+            executor.getPoolSize(),
+            executor.getActiveCount(),
+            executor.getQueue().size(),
+            queueCapacity,
+            executor.getCompletedTaskCount(),
+            rejected.sum(),
+            averageMillis,
+            maxHashNanos.get() / 1_000_000.0
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,102 @@
+package com.b2b.security;
+
+import com.b2b.entity.User;
+import com.b2b.exception.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Decides which BCrypt cost each role's password hash should use, so that
+ * hashes stored at an older cost can be migrated when the user next logs in.
+ * Verification is unaffected: BCrypt reads the cost from the stored hash.
+ */
+@Component
+public class PasswordHashPolicy {
+
+    /** Cost 12 is about a quarter second per hash; anything above would hold a login thread for minutes. */
+    public static final int MAX_BENCHMARK_COST = 12;
+    public static final int MAX_BENCHMARK_SAMPLES = 10;
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private final boolean rehashOnLogin;
+    private final Map<User.Role, Integer> strengths = new EnumMap<>(User.Role.class);
+    private final Map<User.Role, BCryptPasswordEncoder> encoders = new EnumMap<>(User.Role.class);
+    private final AtomicBoolean benchmarkRunning = new AtomicBoolean();
+
+    public PasswordHashPolicy(@Value("${app.security.password.rehash-on-login:false}") boolean rehashOnLogin,
+                              @Value("${app.security.password.bcrypt-strength:10}") int defaultStrength,
+                              @Value("${app.security.password.role-strength.admin:0}") int adminStrength,
+                              @Value("${app.security.password.role-strength.store-manager:0}") int storeManagerStrength,
+                              @Value("${app.security.password.role-strength.user:0}") int userStrength) {
+        this.rehashOnLogin = rehashOnLogin;
+        register(User.Role.ADMIN, adminStrength > 0 ? adminStrength : defaultStrength);
+        register(User.Role.STORE_MANAGER, storeManagerStrength > 0 ? storeManagerStrength : defaultStrength);
+        register(User.Role.USER, userStrength > 0 ? userStrength : defaultStrength);
+    }
+
+    private void register(User.Role role, int strength) {
+        strengths.put(role, strength);
+        encoders.put(role, new BCryptPasswordEncoder(strength));
+    }
+
+    public int targetStrength(User.Role role) {
+        return strengths.get(role);
+    }
+
+    public boolean needsRehash(User user) {
+        if (!rehashOnLogin || user.getPassword() == null) {
+            return false;
+        }
+        int currentStrength = strengthOf(user.getPassword());
+        return currentStrength > 0 && currentStrength != targetStrength(user.getRole());
+    }
+
+    public String encode(CharSequence rawPassword, User.Role role) {
+        return encoders.get(role != null ? role : User.Role.USER).encode(rawPassword);
+    }
+
+    /** Runs {@link #measureLoginsPerSecond} for each cost in range; only one benchmark runs at a time. */
+    public Map<Integer, Double> benchmark(int minCost, int maxCost, int samples) {
+        if (!benchmarkRunning.compareAndSet(false, true)) {
+            throw new TooManyRequestsException("A password hash benchmark is already running");
+        }
+        try {
+            Map<Integer, Double> loginsPerSecond = new LinkedHashMap<>();
+            for (int cost = minCost; cost <= maxCost; cost++) {
+                loginsPerSecond.put(cost, measureLoginsPerSecond(cost, samples));
+            }
+            return loginsPerSecond;
+        } finally {
+            benchmarkRunning.set(false);
+        }
+    }
+
+    /**
+     * Measures how many hash verifications per second this machine sustains
+     * at the given cost, i.e. the upper bound on logins per second per core.
+     */
+    public double measureLoginsPerSecond(int strength, int samples) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        String encoded = encoder.encode("benchmark-password");
+        long start = System.nanoTime();
+        for (int i = 0; i < samples; i++) {
+            encoder.matches("benchmark-password", encoded);
+        }
+        long elapsed = System.nanoTime() - start;
+        return samples / (elapsed / 1_000_000_000.0);
+    }
+
+    static int strengthOf(String encodedPassword) {
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+}
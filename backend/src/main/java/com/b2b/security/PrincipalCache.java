@@ -0,0 +1,57 @@
+package com.b2b.security;
+
+import com.b2b.cache.BoundedTtlCache;
+import com.b2b.dto.response.CacheStatsResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Function;
+
+/**
+ * Caches the principals resolved for JWT subjects so that authenticated
+ * requests do not have to hit the user table every time.
+ */
+@Component
+public class PrincipalCache {
+
+    private final BoundedTtlCache<String, UserDetails> cache;
+
+    public PrincipalCache(@Value("${app.security.principal-cache.max-size:10000}") int maxSize,
+                          @Value("${app.security.principal-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.cache = new BoundedTtlCache<>(maxSize, ttlSeconds * 1000);
+    }
+
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        return cache.getOrLoad(username, loader);
+    }
+
+    /**
+     * Evicts now and again after the current transaction commits, so a request
+     * that reloads the old row before the commit does not cache it for the TTL.
+     */
+    public void evict(String username) {
+        if (username == null) {
+            return;
+        }
+        cache.invalidate(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(username);
+                }
+            });
+        }
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStatsResponse stats() {
+        return new CacheStatsResponse("principal", cache);
+    }
+}
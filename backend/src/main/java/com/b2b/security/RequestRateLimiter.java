@@ -0,0 +1,57 @@
+package com.b2b.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * In-memory limits for the unauthenticated auth endpoints, checked before
+ * any database work is done. Limits are per node; the password reset flow
+ * falls back to its persisted per-user count only when this node has no
+ * record of the email yet (after a restart, or when another node served
+ * the earlier requests).
+ */
+@Component
+public class RequestRateLimiter {
+
+    private final SlidingWindowRateLimiter passwordResetByEmail;
+    private final SlidingWindowRateLimiter passwordResetByIp;
+    private final SlidingWindowRateLimiter loginByIp;
+
+    public RequestRateLimiter(@Value("${app.security.rate-limit.password-reset.per-email:3}") int resetPerEmail,
+                              @Value("${app.security.rate-limit.password-reset.per-ip:20}") int resetPerIp,
+                              @Value("${app.security.rate-limit.password-reset.window-minutes:60}") long resetWindowMinutes,
+                              @Value("${app.security.rate-limit.login.per-ip:0}") int loginPerIp,
+                              @Value("${app.security.rate-limit.login.window-minutes:1}") long loginWindowMinutes) {
+        long resetWindow = Duration.ofMinutes(resetWindowMinutes).toMillis();
+        this.passwordResetByEmail = new SlidingWindowRateLimiter(resetPerEmail, resetWindow);
+        this.passwordResetByIp = new SlidingWindowRateLimiter(resetPerIp, resetWindow);
+        this.loginByIp = new SlidingWindowRateLimiter(loginPerIp, Duration.ofMinutes(loginWindowMinutes).toMillis());
+    }
+
+    public PasswordResetDecision allowPasswordReset(String email, String clientIp) {
+        boolean ipAllowed = clientIp == null || passwordResetByIp.tryAcquire(clientIp);
+        if (!ipAllowed) {
+            return PasswordResetDecision.DENIED;
+        }
+        String key = email.trim().toLowerCase(Locale.ROOT);
+        boolean seen = passwordResetByEmail.isTracked(key);
+        if (!passwordResetByEmail.tryAcquire(key)) {
+            return PasswordResetDecision.DENIED;
+        }
+        return seen ? PasswordResetDecision.ALLOWED : PasswordResetDecision.ALLOWED_UNTRACKED;
+    }
+
+    public enum PasswordResetDecision {
+        DENIED,
+        ALLOWED,
+        /** Allowed, but this node has no history for the email, so the persisted count should be checked. */
+        ALLOWED_UNTRACKED
+    }
+
+    public boolean allowLogin(String clientIp) {
+        return clientIp == null || loginByIp.tryAcquire(clientIp);
+    }
+}
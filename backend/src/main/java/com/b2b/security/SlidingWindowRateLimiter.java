@@ -0,0 +1,105 @@
+package com.b2b.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free sliding-window counter. Each key keeps the count of the current
+ * and previous fixed window; the previous count is weighted by how much of
+ * it still overlaps the sliding window. State is swapped with CAS, and the
+ * key map is a striped {@link ConcurrentHashMap}, so callers never block.
+ */
+public class SlidingWindowRateLimiter {
+
+    private static final int SWEEP_INTERVAL = 1024;
+
+    private final int limit;
+    private final long windowMillis;
+    private final ConcurrentHashMap<String, AtomicReference<Window>> windows = new ConcurrentHashMap<>();
+    private final AtomicLong calls = new AtomicLong();
+
+    public SlidingWindowRateLimiter(int limit, long windowMillis) {
+        this.limit = limit;
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Records an attempt for the key and returns whether it is within the
+     * limit. Rejected attempts are not counted. A non-positive limit
+     * disables the limiter.
+     */
+    public boolean tryAcquire(String key) {
+        if (limit <= 0) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        if (calls.incrementAndGet() % SWEEP_INTERVAL == 0) {
+            sweep(now);
+        }
+
+        AtomicReference<Window> ref = windows.computeIfAbsent(key, k -> new AtomicReference<>(new Window(now - now % windowMillis, 0, 0)));
+        while (true) {
+            Window current = ref.get();
+            Window rolled = current.rollTo(now, windowMillis);
+            if (rolled.estimate(now, windowMillis) >= limit) {
+                if (rolled != current) {
+                    ref.compareAndSet(current, rolled);
+                }
+                return false;
+            }
+            if (ref.compareAndSet(current, rolled.increment())) {
+                return true;
+            }
+        }
+    }
+
+    /** Whether the key has attempts counted in the current sliding window. */
+    public boolean isTracked(String key) {
+        AtomicReference<Window> ref = windows.get(key);
+        if (ref == null) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        return ref.get().rollTo(now, windowMillis).estimate(now, windowMillis) > 0;
+    }
+
+    private void sweep(long now) {
+        windows.entrySet().removeIf(entry -> entry.getValue().get().start + 2 * windowMillis <= now);
+    }
+
+    public int trackedKeys() {
+        return windows.size();
+    }
+
+    private static final class Window {
+        private final long start;
+        private final int previousCount;
+        private final int currentCount;
+
+        private Window(long start, int previousCount, int currentCount) {
+            this.start = start;
+            this.previousCount = previousCount;
+            this.currentCount = currentCount;
+        }
+
+        private Window rollTo(long now, long windowMillis) {
+            long elapsedWindows = (now - start) / windowMillis;
+            if (elapsedWindows <= 0) {
+                return this;
+            }
+            long newStart = start + elapsedWindows * windowMillis;
+            int carried = elapsedWindows == 1 ? currentCount : 0;
+            return new Window(newStart, carried, 0);
+        }
+
+        private double estimate(long now, long windowMillis) {
+            double overlap = 1.0 - (double) (now - start) / windowMillis;
+            return previousCount * overlap + currentCount;
+        }
+
+        private Window increment() {
+            return new Window(start, previousCount, currentCount + 1);
+        }
+    }
+}
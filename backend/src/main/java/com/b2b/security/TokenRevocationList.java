@@ -0,0 +1,65 @@
+package com.b2b.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers users whose role or status changed so that claims carried by
+ * tokens issued before the change are no longer trusted. Entries only need
+ * to outlive the tokens they cover, so they are dropped after the token
+ * lifetime has passed.
+ */
+@Component
+public class TokenRevocationList {
+
+    private final Map<Long, Long> revokedAt = new ConcurrentHashMap<>();
+    private final long jwtExpirationMs;
+
+    public TokenRevocationList(@Value("${app.jwt.expiration:86400000}") long jwtExpirationMs) {
+        this.jwtExpirationMs = jwtExpirationMs;
+    }
+
+    /**
+     * Revokes now and again after the current transaction commits, so tokens
+     * issued from the old row while the change was uncommitted are covered too.
+     */
+    public void revoke(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        stamp(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    stamp(userId);
+                }
+            });
+        }
+    }
+
+    private void stamp(Long userId) {
+        long now = System.currentTimeMillis();
+        revokedAt.put(userId, now);
+        revokedAt.values().removeIf(time -> time < now - jwtExpirationMs);
+    }
+
+    public boolean isRevoked(Long userId, Date issuedAt) {
+        Long revokedTime = revokedAt.get(userId);
+        if (revokedTime == null) {
+            return false;
+        }
+        // Token iat has second precision, so treat same-second tokens as revoked
+        return issuedAt == null || issuedAt.getTime() <= revokedTime;
+    }
+
+    public int size() {
+        return revokedAt.size();
+    }
+}
@@ -0,0 +1,80 @@
+package com.b2b.service;
+
+import com.b2b.dto.response.JobRunResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Periodically recomputes {@code account_status_totals} from the source tables
+ * to repair any drift, e.g. from rows changed outside the application.
+ */
+@Component
+public class AccountTotalsRebuildJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountTotalsRebuildJob.class);
+
+    static final String JOB_NAME = "account-totals-rebuild";
+
+    private final AccountTotalsService accountTotalsService;
+    private final SchedulerLockService schedulerLockService;
+    private final JobRunRegistry jobRunRegistry;
+
+    @Value("${app.billing.totals.rebuild.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.billing.totals.rebuild.lock-seconds:1800}")
+    private long lockSeconds;
+
+    @Autowired
+    public AccountTotalsRebuildJob(AccountTotalsService accountTotalsService,
+                                   SchedulerLockService schedulerLockService,
+                                   JobRunRegistry jobRunRegistry) {
+        this.accountTotalsService = accountTotalsService;
+        this.schedulerLockService = schedulerLockService;
+        this.jobRunRegistry = jobRunRegistry;
+    }
+
+    /** Populates the table on the first start after it was introduced. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (enabled && accountTotalsService.isEmpty()) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(cron = "${app.billing.totals.rebuild.cron:0 30 3 * * *}")
+    public void scheduledRebuild() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /** Returns the number of total rows written, or -1 if another node holds the lock. */
+    public long rebuild() {
+        if (!schedulerLockService.tryLock(JOB_NAME, Duration.ofSeconds(lockSeconds))) {
+            return -1;
+        }
+        try {
+            LocalDateTime startedAt = LocalDateTime.now();
+            long start = System.nanoTime();
+            int rows = accountTotalsService.rebuild();
+            long durationMillis = (System.nanoTime() - start) / 1_000_000;
+
+            jobRunRegistry.record(new JobRunResponse(JOB_NAME, schedulerLockService.getNodeId(),
+                startedAt, durationMillis, rows));
+            logger.info("Rebuilt {} account total rows ({} ms)", rows, durationMillis);
+            return rows;
+        } finally {
+            schedulerLockService.unlock(JOB_NAME);
+        }
+    }
+}
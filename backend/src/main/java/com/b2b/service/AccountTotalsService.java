@@ -0,0 +1,116 @@
+package com.b2b.service;
+
+import com.b2b.entity.AccountStatusTotal;
+import com.b2b.entity.Invoice;
+import com.b2b.entity.Payment;
+import com.b2b.repository.AccountStatusTotalRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+/**
+ * Keeps {@code account_status_totals} in step with invoices and payments.
+ * Every write method must run inside the transaction that changes the
+ * invoice or payment, so the totals commit or roll back with it. Each change
+ * is an upsert of a delta on the (account, kind, status) row, so concurrent
+ * writers never read-modify-write the same value. Reads are primary key
+ * lookups. {@link #rebuild()} recomputes everything if the totals drift.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class AccountTotalsService {
+
+    private final AccountStatusTotalRepository accountStatusTotalRepository;
+
+    @Autowired
+    public AccountTotalsService(AccountStatusTotalRepository accountStatusTotalRepository) {
+        this.accountStatusTotalRepository = accountStatusTotalRepository;
+    }
+
+    public void invoiceCreated(Invoice invoice) {
+        apply(AccountStatusTotal.Kind.INVOICE, accountId(invoice), invoice.getStatus().name(), 1, invoice.getTotalAmount());
+    }
+
+    public void invoiceDeleted(Invoice invoice) {
+        apply(AccountStatusTotal.Kind.INVOICE, accountId(invoice), invoice.getStatus().name(), -1,
+            invoice.getTotalAmount().negate());
+    }
+
+    public void invoiceStatusChanged(Invoice invoice, Invoice.Status from) {
+        invoicesMoved(accountId(invoice), from, invoice.getStatus(), 1, invoice.getTotalAmount());
+    }
+
+    /** Moves {@code count} invoices worth {@code amount} of one account from one status to another. */
+    public void invoicesMoved(Long accountId, Invoice.Status from, Invoice.Status to, long count, BigDecimal amount) {
+        if (from == to) {
+            return;
+        }
+        apply(AccountStatusTotal.Kind.INVOICE, accountId, from.name(), -count, amount.negate());
+        apply(AccountStatusTotal.Kind.INVOICE, accountId, to.name(), count, amount);
+    }
+
+    public void paymentCreated(Payment payment) {
+        apply(AccountStatusTotal.Kind.PAYMENT, accountId(payment), payment.getStatus().name(), 1, payment.getAmount());
+    }
+
+    public void paymentDeleted(Payment payment) {
+        apply(AccountStatusTotal.Kind.PAYMENT, accountId(payment), payment.getStatus().name(), -1,
+            payment.getAmount().negate());
+    }
+
+    public void paymentStatusChanged(Payment payment, Payment.Status from) {
+        if (from == payment.getStatus()) {
+            return;
+        }
+        apply(AccountStatusTotal.Kind.PAYMENT, accountId(payment), from.name(), -1, payment.getAmount().negate());
+        apply(AccountStatusTotal.Kind.PAYMENT, accountId(payment), payment.getStatus().name(), 1, payment.getAmount());
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal getInvoiceTotal(Long billingAccountId, Invoice.Status status) {
+        return total(billingAccountId, AccountStatusTotal.Kind.INVOICE, status.name());
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal getPaymentTotal(Long billingAccountId, Payment.Status status) {
+        return total(billingAccountId, AccountStatusTotal.Kind.PAYMENT, status.name());
+    }
+
+    @Transactional(readOnly = true)
+    public long getInvoiceCount(Long billingAccountId) {
+        return accountStatusTotalRepository.sumItemCount(billingAccountId, AccountStatusTotal.Kind.INVOICE);
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isEmpty() {
+        return accountStatusTotalRepository.count() == 0;
+    }
+
+    /** Recomputes every row from the invoice and payment tables in one transaction. */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public int rebuild() {
+        accountStatusTotalRepository.deleteAllRows();
+        return accountStatusTotalRepository.rebuildInvoiceTotals() + accountStatusTotalRepository.rebuildPaymentTotals();
+    }
+
+    private BigDecimal total(Long billingAccountId, AccountStatusTotal.Kind kind, String status) {
+        return accountStatusTotalRepository.findById(new AccountStatusTotal.Key(billingAccountId, kind, status))
+            .map(AccountStatusTotal::getTotalAmount)
+            .orElse(BigDecimal.ZERO);
+    }
+
+    private void apply(AccountStatusTotal.Kind kind, Long accountId, String status, long countDelta, BigDecimal amountDelta) {
+        accountStatusTotalRepository.applyDelta(accountId, kind.name(), status, countDelta, amountDelta);
+    }
+
+    private static Long accountId(Invoice invoice) {
+        return invoice.getBillingAccount().getId();
+    }
+
+    private static Long accountId(Payment payment) {
+        return payment.getInvoice().getBillingAccount().getId();
+    }
+}
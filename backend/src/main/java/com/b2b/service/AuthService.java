@@ -6,6 +6,7 @@ import com.b2b.dto.response.AuthResponse;
 import com.b2b.dto.response.UserResponse;
 import com.b2b.entity.User;
 import com.b2b.security.JwtUtils;
+import com.b2b.security.PasswordHashPolicy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -22,16 +23,19 @@ public class AuthService {
     private final UserService userService;
     private final JwtUtils jwtUtils;
     private final EmailService emailService;
+    private final PasswordHashPolicy passwordHashPolicy;
 
     @Autowired
     public AuthService(AuthenticationManager authenticationManager, 
                       UserService userService, 
                       JwtUtils jwtUtils,
-                      EmailService emailService) {
+                      EmailService emailService,
+                      PasswordHashPolicy passwordHashPolicy) {
         this.authenticationManager = authenticationManager;
         this.userService = userService;
         this.jwtUtils = jwtUtils;
         this.emailService = emailService;
+        this.passwordHashPolicy = passwordHashPolicy;
     }
 
     public AuthResponse authenticateUser(LoginRequest loginRequest) {
@@ -46,24 +50,25 @@ public class AuthService {
         String jwt = jwtUtils.generateJwtToken(authentication);
 
         User user = (User) authentication.getPrincipal();
+        if (passwordHashPolicy.needsRehash(user)) {
+            // Migrate the stored hash to the cost configured for this role
+            String rehashed = passwordHashPolicy.encode(loginRequest.getPassword(), user.getRole());
+            userService.updatePasswordHash(user.getId(), rehashed);
+        }
         UserResponse userResponse = new UserResponse(user);
 
         return new AuthResponse(jwt, userResponse);
     }
 
+    @Transactional
     public UserResponse registerUser(UserRegistrationRequest registrationRequest) {
         UserResponse userResponse = userService.createUser(registrationRequest);
         
-        // 發送歡迎郵件
-        try {
-            emailService.sendWelcomeEmail(
-                userResponse.getEmail(), 
-                userResponse.getFirstName() + " " + userResponse.getLastName()
-            );
-        } catch (Exception e) {
-            // 記錄錯誤但不影響註冊流程
-            System.err.println("發送歡迎郵件失敗: " + e.getMessage());
-        }
+        // 歡迎郵件與用戶在同一交易中寫入寄件匣，由背景排程寄出
+        emailService.sendWelcomeEmail(
+            userResponse.getEmail(), 
+            userResponse.getFirstName() + " " + userResponse.getLastName()
+        );
         
         return userResponse;
     }
@@ -73,6 +78,10 @@ public class AuthService {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null && authentication.getPrincipal() instanceof User) {
             User user = (User) authentication.getPrincipal();
+            if (user.getEmail() == null) {
+                // Principals built from stateless token claims only carry id, role and status
+                return userService.getUserById(user.getId());
+            }
             return new UserResponse(user);
         }
         throw new IllegalStateException("No authenticated user found");
@@ -0,0 +1,87 @@
+package com.b2b.service;
+
+import com.b2b.dto.response.BalanceLedgerEntryResponse;
+import com.b2b.entity.BalanceLedgerEntry;
+import com.b2b.entity.BillingAccount;
+import com.b2b.repository.BalanceLedgerEntryRepository;
+import com.b2b.repository.BillingAccountRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Balance movements are appended to the ledger instead of rewriting
+ * {@code billing_accounts.balance}, so concurrent adjustments to one account
+ * neither lose updates nor queue behind each other. Each writer holds a shared
+ * lock on the account row until it commits, which is what lets
+ * {@link BalanceSnapshotJob} fold only committed entries. The current balance
+ * is the account's snapshot plus the entries recorded after it.
+ */
+@Service
+@Transactional
+public class BalanceLedgerService {
+
+    private final BalanceLedgerEntryRepository ledgerEntryRepository;
+    private final BillingAccountRepository billingAccountRepository;
+
+    @Autowired
+    public BalanceLedgerService(BalanceLedgerEntryRepository ledgerEntryRepository,
+                                BillingAccountRepository billingAccountRepository) {
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.billingAccountRepository = billingAccountRepository;
+    }
+
+    public BalanceLedgerEntry record(Long billingAccountId, BigDecimal amount, BalanceLedgerEntry.EntryType entryType) {
+        billingAccountRepository.lockForLedgerEntry(billingAccountId);
+        return ledgerEntryRepository.save(new BalanceLedgerEntry(billingAccountId, amount, entryType));
+    }
+
+    @Transactional(readOnly = true)
+    public BigDecimal currentBalance(BillingAccount account) {
+        BigDecimal snapshot = account.getBalance() != null ? account.getBalance() : BigDecimal.ZERO;
+        return snapshot.add(ledgerEntryRepository.sumAfter(account.getId(), account.getBalanceSnapshotEntryId()));
+    }
+
+    /** Current balances keyed by account id, with one query for the whole collection. */
+    @Transactional(readOnly = true)
+    public Map<Long, BigDecimal> currentBalances(Collection<BillingAccount> accounts) {
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        if (accounts.isEmpty()) {
+            return balances;
+        }
+        for (BillingAccount account : accounts) {
+            balances.put(account.getId(), account.getBalance() != null ? account.getBalance() : BigDecimal.ZERO);
+        }
+        List<Long> ids = accounts.stream().map(BillingAccount::getId).collect(Collectors.toList());
+        pendingDeltas(ids).forEach((id, delta) -> balances.merge(id, delta, BigDecimal::add));
+        return balances;
+    }
+
+    /** Sum of the entries not yet folded into each account's snapshot, keyed by account id; absent if none. */
+    @Transactional(readOnly = true)
+    public Map<Long, BigDecimal> pendingDeltas(Collection<Long> accountIds) {
+        Map<Long, BigDecimal> deltas = new HashMap<>();
+        if (accountIds.isEmpty()) {
+            return deltas;
+        }
+        for (Object[] row : ledgerEntryRepository.sumPendingByAccount(accountIds)) {
+            deltas.put((Long) row[0], (BigDecimal) row[1]);
+        }
+        return deltas;
+    }
+
+    @Transactional(readOnly = true)
+    public Page<BalanceLedgerEntryResponse> getEntries(Long billingAccountId, Pageable pageable) {
+        return ledgerEntryRepository.findByBillingAccountIdOrderByIdDesc(billingAccountId, pageable)
+            .map(BalanceLedgerEntryResponse::new);
+    }
+}
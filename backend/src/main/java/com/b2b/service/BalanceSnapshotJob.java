@@ -0,0 +1,103 @@
+package com.b2b.service;
+
+import com.b2b.dto.response.JobRunResponse;
+import com.b2b.repository.BalanceLedgerEntryRepository;
+import com.b2b.repository.BillingAccountRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Folds recent ledger entries into {@code billing_accounts.balance} so reads
+ * only have to add a short tail of entries. Ids are assigned at insert but
+ * become visible at commit, so a global high-water mark could skip an entry
+ * whose transaction was still open. Each account is instead folded in its own
+ * transaction under an exclusive lock on its row: writers hold a shared lock
+ * on that row until they commit, so once the lock is granted every entry of
+ * the account is committed and none can be added until the fold commits.
+ */
+@Component
+public class BalanceSnapshotJob {
+
+    static final String JOB_NAME = "balance-snapshot";
+
+    private final BalanceLedgerEntryRepository ledgerEntryRepository;
+    private final BillingAccountRepository billingAccountRepository;
+    private final SchedulerLockService schedulerLockService;
+    private final JobRunRegistry jobRunRegistry;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.billing.ledger.snapshot.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.billing.ledger.snapshot.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.billing.ledger.snapshot.lock-seconds:300}")
+    private long lockSeconds;
+
+    @Autowired
+    public BalanceSnapshotJob(BalanceLedgerEntryRepository ledgerEntryRepository,
+                              BillingAccountRepository billingAccountRepository,
+                              SchedulerLockService schedulerLockService,
+                              JobRunRegistry jobRunRegistry,
+                              PlatformTransactionManager transactionManager) {
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.billingAccountRepository = billingAccountRepository;
+        this.schedulerLockService = schedulerLockService;
+        this.jobRunRegistry = jobRunRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(initialDelayString = "${app.billing.ledger.snapshot.initial-delay-ms:60000}",
+               fixedDelayString = "${app.billing.ledger.snapshot.interval-ms:60000}")
+    public void run() {
+        if (!enabled || !schedulerLockService.tryLock(JOB_NAME, Duration.ofSeconds(lockSeconds))) {
+            return;
+        }
+        try {
+            LocalDateTime startedAt = LocalDateTime.now();
+            long start = System.nanoTime();
+            int accounts = snapshot();
+            jobRunRegistry.record(new JobRunResponse(JOB_NAME, schedulerLockService.getNodeId(), startedAt,
+                (System.nanoTime() - start) / 1_000_000, accounts));
+        } finally {
+            schedulerLockService.unlock(JOB_NAME);
+        }
+    }
+
+    /** Returns the number of accounts whose snapshot moved. */
+    public int snapshot() {
+        List<Long> accountIds = transactionTemplate.execute(status ->
+            ledgerEntryRepository.findAccountIdsWithPendingEntries(batchSize));
+        int folded = 0;
+        for (Long accountId : accountIds != null ? accountIds : List.<Long>of()) {
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> fold(accountId)))) {
+                folded++;
+            }
+        }
+        return folded;
+    }
+
+    private boolean fold(Long accountId) {
+        Long snapshotEntryId = billingAccountRepository.lockForSnapshot(accountId);
+        if (snapshotEntryId == null) {
+            return false;
+        }
+        Object[] pending = ledgerEntryRepository.sumAfterForShare(accountId, snapshotEntryId).get(0);
+        if (pending[1] == null) {
+            return false;
+        }
+        BigDecimal delta = (BigDecimal) pending[0];
+        long toId = ((Number) pending[1]).longValue();
+        return billingAccountRepository.advanceSnapshot(accountId, delta, toId, LocalDateTime.now()) > 0;
+    }
+}
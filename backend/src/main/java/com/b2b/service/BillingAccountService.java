@@ -2,10 +2,15 @@ package com.b2b.service;
 
 import com.b2b.dto.request.BillingAccountCreateRequest;
 import com.b2b.dto.response.BillingAccountResponse;
+import com.b2b.dto.response.BalanceLedgerEntryResponse;
+import com.b2b.dto.response.CursorPage;
+import com.b2b.entity.BalanceLedgerEntry;
 import com.b2b.entity.BillingAccount;
 import com.b2b.entity.Store;
 import com.b2b.exception.ResourceNotFoundException;
 import com.b2b.repository.BillingAccountRepository;
+import com.b2b.repository.ProjectionQueryExecutor;
+import com.b2b.repository.SeekQueryExecutor;
 import com.b2b.repository.StoreRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -14,21 +19,49 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class BillingAccountService {
 
+    /** Columns with a (column, id) index on billing_accounts. */
+    private static final Set<String> SEEK_COLUMNS = Set.of("id", "createdAt", "accountName");
+
+    /** Fields a sparse fieldset may select, mapped to their attribute paths. */
+    private static final Map<String, String> FIELDS = Map.ofEntries(
+        Map.entry("id", "id"), Map.entry("storeId", "store.id"), Map.entry("accountName", "accountName"),
+        Map.entry("accountType", "accountType"), Map.entry("balance", "balance"),
+        Map.entry("creditLimit", "creditLimit"), Map.entry("currency", "currency"), Map.entry("status", "status"),
+        Map.entry("createdAt", "createdAt"), Map.entry("updatedAt", "updatedAt"));
+
     private final BillingAccountRepository billingAccountRepository;
     private final StoreRepository storeRepository;
+    private final SeekQueryExecutor seekQueryExecutor;
+    private final BalanceLedgerService balanceLedgerService;
+    private final CreditExposureIndex creditExposureIndex;
+    private final ProjectionQueryExecutor projectionQueryExecutor;
+    private final BillingResponseMapper billingResponseMapper;
 
     @Autowired
     public BillingAccountService(BillingAccountRepository billingAccountRepository, 
-                                StoreRepository storeRepository) {
+                                StoreRepository storeRepository,
+                                SeekQueryExecutor seekQueryExecutor,
+                                BalanceLedgerService balanceLedgerService,
+                                CreditExposureIndex creditExposureIndex,
+                                ProjectionQueryExecutor projectionQueryExecutor,
+                                BillingResponseMapper billingResponseMapper) {
         this.billingAccountRepository = billingAccountRepository;
         this.storeRepository = storeRepository;
+        this.seekQueryExecutor = seekQueryExecutor;
+        this.balanceLedgerService = balanceLedgerService;
+        this.creditExposureIndex = creditExposureIndex;
+        this.projectionQueryExecutor = projectionQueryExecutor;
+        this.billingResponseMapper = billingResponseMapper;
     }
 
     public BillingAccountResponse createBillingAccount(BillingAccountCreateRequest request) {
@@ -39,25 +72,54 @@ public class BillingAccountService {
         account.setStore(store);
         account.setAccountName(request.getAccountName());
         account.setAccountType(request.getAccountType());
-        account.setBalance(request.getInitialBalance());
         account.setCreditLimit(request.getCreditLimit());
         account.setCurrency(request.getCurrency());
 
         BillingAccount savedAccount = billingAccountRepository.save(account);
-        return new BillingAccountResponse(savedAccount);
+        creditExposureIndex.accountChanged(savedAccount);
+        // The opening balance goes through the ledger like every later movement
+        if (request.getInitialBalance() != null && request.getInitialBalance().signum() != 0) {
+            balanceLedgerService.record(savedAccount.getId(), request.getInitialBalance(),
+                BalanceLedgerEntry.EntryType.OPENING);
+        }
+        return toResponse(savedAccount);
     }
 
     @Transactional(readOnly = true)
     public BillingAccountResponse getBillingAccountById(Long id) {
         BillingAccount account = billingAccountRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Billing account not found with id: " + id));
-        return new BillingAccountResponse(account);
+        return toResponse(account);
     }
 
     @Transactional(readOnly = true)
     public Page<BillingAccountResponse> getAllBillingAccounts(Pageable pageable) {
-        return billingAccountRepository.findAll(pageable)
-            .map(BillingAccountResponse::new);
+        return toResponses(billingAccountRepository.findAll(pageable));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> selectBillingAccounts(String fields, BillingAccount.Status status,
+                                                           Pageable pageable) {
+        Set<String> selected = ProjectionQueryExecutor.parseFields(fields);
+        Page<Map<String, Object>> page = projectionQueryExecutor.select(BillingAccount.class, FIELDS, selected,
+            Collections.singletonMap("status", status), pageable);
+        if (selected.contains("balance")) {
+            // The column is only the snapshot; add the ledger entries recorded since
+            List<Long> ids = page.getContent().stream().map(row -> (Long) row.get("id")).collect(Collectors.toList());
+            Map<Long, BigDecimal> pending = balanceLedgerService.pendingDeltas(ids);
+            page.getContent().forEach(row -> row.computeIfPresent("balance", (key, snapshot) ->
+                ((BigDecimal) snapshot).add(pending.getOrDefault((Long) row.get("id"), BigDecimal.ZERO))));
+        }
+        return page;
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<BillingAccountResponse> seekBillingAccounts(String sortBy, boolean descending,
+                                                                  BillingAccount.Status status, String cursor,
+                                                                  int size, boolean includeTotal) {
+        CursorPage<BillingAccount> page = seekQueryExecutor.seek(BillingAccount.class, SEEK_COLUMNS, sortBy,
+                descending, Collections.singletonMap("status", status), cursor, size, includeTotal, null);
+        return billingResponseMapper.toAccountResponses(page);
     }
 
     @Transactional(readOnly = true)
@@ -65,10 +127,7 @@ public class BillingAccountService {
         Store store = storeRepository.findById(storeId)
             .orElseThrow(() -> new ResourceNotFoundException("Store not found with id: " + storeId));
         
-        return billingAccountRepository.findByStore(store)
-            .stream()
-            .map(BillingAccountResponse::new)
-            .collect(Collectors.toList());
+        return toResponses(billingAccountRepository.findByStoreId(store.getId()));
     }
 
     @Transactional(readOnly = true)
@@ -76,8 +135,7 @@ public class BillingAccountService {
         Store store = storeRepository.findById(storeId)
             .orElseThrow(() -> new ResourceNotFoundException("Store not found with id: " + storeId));
         
-        return billingAccountRepository.findByStore(store, pageable)
-            .map(BillingAccountResponse::new);
+        return toResponses(billingAccountRepository.findByStore(store, pageable));
     }
 
     @Transactional(readOnly = true)
@@ -85,22 +143,17 @@ public class BillingAccountService {
         Store store = storeRepository.findById(storeId)
             .orElseThrow(() -> new ResourceNotFoundException("Store not found with id: " + storeId));
         
-        return billingAccountRepository.findByStoreAndStatus(store, status)
-            .stream()
-            .map(BillingAccountResponse::new)
-            .collect(Collectors.toList());
+        return toResponses(billingAccountRepository.findByStoreIdAndStatus(store.getId(), status));
     }
 
     @Transactional(readOnly = true)
     public Page<BillingAccountResponse> getBillingAccountsByStatus(BillingAccount.Status status, Pageable pageable) {
-        return billingAccountRepository.findByStatus(status, pageable)
-            .map(BillingAccountResponse::new);
+        return toResponses(billingAccountRepository.findByStatus(status, pageable));
     }
 
     @Transactional(readOnly = true)
     public Page<BillingAccountResponse> searchBillingAccounts(String search, Pageable pageable) {
-        return billingAccountRepository.findBySearchTerm(search, pageable)
-            .map(BillingAccountResponse::new);
+        return toResponses(billingAccountRepository.findBySearchTerm(search, pageable));
     }
 
     public BillingAccountResponse updateBillingAccountStatus(Long id, BillingAccount.Status status) {
@@ -109,7 +162,7 @@ public class BillingAccountService {
         
         account.setStatus(status);
         BillingAccount updatedAccount = billingAccountRepository.save(account);
-        return new BillingAccountResponse(updatedAccount);
+        return toResponse(updatedAccount);
     }
 
     public BillingAccountResponse updateCreditLimit(Long id, BigDecimal creditLimit) {
@@ -118,32 +171,28 @@ public class BillingAccountService {
         
         account.setCreditLimit(creditLimit);
         BillingAccount updatedAccount = billingAccountRepository.save(account);
-        return new BillingAccountResponse(updatedAccount);
+        creditExposureIndex.accountChanged(updatedAccount);
+        return toResponse(updatedAccount);
     }
 
     public BillingAccountResponse adjustBalance(Long id, BigDecimal amount) {
         BillingAccount account = billingAccountRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Billing account not found with id: " + id));
         
-        account.setBalance(account.getBalance().add(amount));
-        BillingAccount updatedAccount = billingAccountRepository.save(account);
-        return new BillingAccountResponse(updatedAccount);
+        // Appended, not read-modify-write: concurrent adjustments never overwrite each other
+        balanceLedgerService.record(account.getId(), amount, BalanceLedgerEntry.EntryType.ADJUSTMENT);
+        return toResponse(account);
     }
 
     @Transactional(readOnly = true)
     public List<BillingAccountResponse> getAccountsWithLowBalance(BigDecimal threshold) {
-        return billingAccountRepository.findAccountsWithLowBalance(threshold)
-            .stream()
-            .map(BillingAccountResponse::new)
-            .collect(Collectors.toList());
+        return toResponses(billingAccountRepository.findAccountsWithLowBalance(threshold));
     }
 
     @Transactional(readOnly = true)
     public List<BillingAccountResponse> getOverCreditLimitAccounts() {
-        return billingAccountRepository.findOverCreditLimitAccounts()
-            .stream()
-            .map(BillingAccountResponse::new)
-            .collect(Collectors.toList());
+        // Outstanding invoices over the limit, straight from the in-memory exposure index
+        return toResponses(billingAccountRepository.findAllById(creditExposureIndex.findOverLimitAccountIds()));
     }
 
     public void deleteBillingAccount(Long id) {
@@ -151,10 +200,31 @@ public class BillingAccountService {
             throw new ResourceNotFoundException("Billing account not found with id: " + id);
         }
         billingAccountRepository.deleteById(id);
+        creditExposureIndex.accountRemoved(id);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<BalanceLedgerEntryResponse> getBalanceLedger(Long id, Pageable pageable) {
+        if (!billingAccountRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Billing account not found with id: " + id);
+        }
+        return balanceLedgerService.getEntries(id, pageable);
     }
 
     @Transactional(readOnly = true)
     public long getBillingAccountCountByStore(Long storeId) {
         return billingAccountRepository.countByStoreId(storeId);
     }
-}
\ No newline at end of file
+
+    private BillingAccountResponse toResponse(BillingAccount account) {
+        return billingResponseMapper.toAccountResponse(account);
+    }
+
+    private List<BillingAccountResponse> toResponses(List<BillingAccount> accounts) {
+        return billingResponseMapper.toAccountResponses(accounts);
+    }
+
+    private Page<BillingAccountResponse> toResponses(Page<BillingAccount> accounts) {
+        return billingResponseMapper.toAccountResponses(accounts);
+    }
+}
@@ -0,0 +1,162 @@
+package com.b2b.service;
+
+import com.b2b.entity.Invoice;
+import com.b2b.entity.Payment;
+import com.b2b.repository.InvoiceRepository;
+import com.b2b.repository.PaymentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes invoices and payments straight from a forward-only result set to the
+ * response, one row at a time. The persistence context is cleared every
+ * {@code clear-interval} rows, so heap use does not grow with the export size.
+ */
+@Service
+public class BillingExportService {
+
+    public enum Format {
+        CSV("text/csv"), NDJSON("application/x-ndjson");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+    }
+
+    private static final List<String> INVOICE_COLUMNS = List.of(
+        "id", "invoiceNumber", "billingAccountId", "accountName", "amount", "taxAmount", "totalAmount",
+        "status", "issueDate", "dueDate", "paidDate", "createdAt");
+
+    private static final List<String> PAYMENT_COLUMNS = List.of(
+        "id", "invoiceId", "invoiceNumber", "billingAccountId", "amount", "paymentMethod", "paymentReference",
+        "paymentDate", "status", "createdAt");
+
+    private final InvoiceRepository invoiceRepository;
+    private final PaymentRepository paymentRepository;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.billing.export.clear-interval:1000}")
+    private int clearInterval;
+
+    @Autowired
+    public BillingExportService(InvoiceRepository invoiceRepository, PaymentRepository paymentRepository,
+                                ObjectMapper objectMapper) {
+        this.invoiceRepository = invoiceRepository;
+        this.paymentRepository = paymentRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public long exportInvoicesDueBetween(LocalDate startDate, LocalDate endDate, Format format, OutputStream out)
+            throws IOException {
+        try (Stream<Invoice> invoices = invoiceRepository.streamInvoicesDueBetween(startDate, endDate)) {
+            return write(invoices, INVOICE_COLUMNS, this::invoiceRow, format, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportPaymentsBetween(LocalDate startDate, LocalDate endDate, Payment.Status status, Format format,
+                                      OutputStream out) throws IOException {
+        try (Stream<Payment> payments = paymentRepository.streamPaymentsBetweenDates(startDate, endDate, status)) {
+            return write(payments, PAYMENT_COLUMNS, this::paymentRow, format, out);
+        }
+    }
+
+    private <T> long write(Stream<T> rows, List<String> columns, Function<T, Object[]> toRow, Format format,
+                           OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writeCsvLine(writer, columns.toArray());
+        }
+
+        long count = 0;
+        Iterator<T> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            Object[] values = toRow.apply(iterator.next());
+            if (format == Format.CSV) {
+                writeCsvLine(writer, values);
+            } else {
+                writeJsonLine(writer, columns, values);
+            }
+            if (++count % clearInterval == 0) {
+                entityManager.clear();
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private Object[] invoiceRow(Invoice invoice) {
+        return new Object[] {
+            invoice.getId(), invoice.getInvoiceNumber(), invoice.getBillingAccount().getId(),
+            invoice.getBillingAccount().getAccountName(), invoice.getAmount(), invoice.getTaxAmount(),
+            invoice.getTotalAmount(), invoice.getStatus(), invoice.getIssueDate(), invoice.getDueDate(),
+            invoice.getPaidDate(), invoice.getCreatedAt()
+        };
+    }
+
+    private Object[] paymentRow(Payment payment) {
+        Invoice invoice = payment.getInvoice();
+        return new Object[] {
+            payment.getId(), invoice.getId(), invoice.getInvoiceNumber(), invoice.getBillingAccount().getId(),
+            payment.getAmount(), payment.getPaymentMethod(), payment.getPaymentReference(),
+            payment.getPaymentDate(), payment.getStatus(), payment.getCreatedAt()
+        };
+    }
+
+    private void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write(csvEscape(values[i].toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private String csvEscape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private void writeJsonLine(Writer writer, List<String> columns, Object[] values) throws IOException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < values.length; i++) {
+            row.put(columns.get(i), values[i]);
+        }
+        writer.write(objectMapper.writeValueAsString(row));
+        writer.write('\n');
+    }
+}
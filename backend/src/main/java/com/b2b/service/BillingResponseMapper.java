@@ -0,0 +1,178 @@
+package com.b2b.service;
+
+import com.b2b.cache.StoreDirectoryCache;
+import com.b2b.dto.response.BillingAccountResponse;
+import com.b2b.dto.response.CursorPage;
+import com.b2b.dto.response.IncludedResources;
+import com.b2b.dto.response.InvoiceResponse;
+import com.b2b.dto.response.PaymentResponse;
+import com.b2b.dto.response.StoreResponse;
+import com.b2b.dto.response.UserResponse;
+import com.b2b.entity.BillingAccount;
+import com.b2b.entity.Invoice;
+import com.b2b.entity.Payment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Builds billing responses with the nested store taken from
+ * {@link StoreDirectoryCache}. Only the store id is read from the entity,
+ * which does not initialize the lazy store association. Account balances are
+ * the snapshot plus pending ledger entries, read in one query for all the
+ * accounts of a page. In the compact view nested objects are referenced by id
+ * and each is built once per request into {@link IncludedResources}.
+ */
+@Component
+public class BillingResponseMapper {
+
+    private final StoreDirectoryCache storeDirectoryCache;
+    private final BalanceLedgerService balanceLedgerService;
+
+    @Autowired
+    public BillingResponseMapper(StoreDirectoryCache storeDirectoryCache, BalanceLedgerService balanceLedgerService) {
+        this.storeDirectoryCache = storeDirectoryCache;
+        this.balanceLedgerService = balanceLedgerService;
+    }
+
+    public BillingAccountResponse toAccountResponse(BillingAccount account) {
+        return accountMapper(List.of(account)).apply(account);
+    }
+
+    public InvoiceResponse toInvoiceResponse(Invoice invoice) {
+        return invoiceMapper(List.of(invoice)).apply(invoice);
+    }
+
+    public PaymentResponse toPaymentResponse(Payment payment) {
+        return paymentMapper(List.of(payment)).apply(payment);
+    }
+
+    public List<BillingAccountResponse> toAccountResponses(List<BillingAccount> accounts) {
+        return accounts.stream().map(accountMapper(accounts)).collect(Collectors.toList());
+    }
+
+    public Page<BillingAccountResponse> toAccountResponses(Page<BillingAccount> accounts) {
+        return accounts.map(accountMapper(accounts.getContent()));
+    }
+
+    public CursorPage<BillingAccountResponse> toAccountResponses(CursorPage<BillingAccount> accounts) {
+        return accounts.map(accountMapper(accounts.getContent()));
+    }
+
+    public List<InvoiceResponse> toInvoiceResponses(List<Invoice> invoices) {
+        return invoices.stream().map(invoiceMapper(invoices)).collect(Collectors.toList());
+    }
+
+    public Page<InvoiceResponse> toInvoiceResponses(Page<Invoice> invoices) {
+        return invoices.map(invoiceMapper(invoices.getContent()));
+    }
+
+    public CursorPage<InvoiceResponse> toInvoiceResponses(CursorPage<Invoice> invoices) {
+        return invoices.map(invoiceMapper(invoices.getContent()));
+    }
+
+    public List<PaymentResponse> toPaymentResponses(List<Payment> payments) {
+        return payments.stream().map(paymentMapper(payments)).collect(Collectors.toList());
+    }
+
+    public Page<PaymentResponse> toPaymentResponses(Page<Payment> payments) {
+        return payments.map(paymentMapper(payments.getContent()));
+    }
+
+    public CursorPage<PaymentResponse> toPaymentResponses(CursorPage<Payment> payments) {
+        return payments.map(paymentMapper(payments.getContent()));
+    }
+
+    /** Maps any of the given accounts, with their current balances read up front. */
+    public Function<BillingAccount, BillingAccountResponse> accountMapper(Collection<BillingAccount> accounts) {
+        Map<Long, BigDecimal> balances = currentBalances(accounts);
+        return account -> toAccountResponse(account, balances);
+    }
+
+    /** Maps any of the given invoices, with the current balances of their accounts read up front. */
+    public Function<Invoice, InvoiceResponse> invoiceMapper(Collection<Invoice> invoices) {
+        Map<Long, BigDecimal> balances = currentBalances(invoices.stream()
+            .map(Invoice::getBillingAccount)
+            .collect(Collectors.toList()));
+        return invoice -> toInvoiceResponse(invoice, balances);
+    }
+
+    /** Maps any of the given payments, with the current balances of their accounts read up front. */
+    public Function<Payment, PaymentResponse> paymentMapper(Collection<Payment> payments) {
+        Map<Long, BigDecimal> balances = currentBalances(payments.stream()
+            .map(Payment::getInvoice)
+            .filter(Objects::nonNull)
+            .map(Invoice::getBillingAccount)
+            .collect(Collectors.toList()));
+        return payment -> toPaymentResponse(payment, balances);
+    }
+
+    private Map<Long, BigDecimal> currentBalances(Collection<BillingAccount> accounts) {
+        Map<Long, BillingAccount> distinct = new LinkedHashMap<>();
+        for (BillingAccount account : accounts) {
+            if (account != null) {
+                distinct.putIfAbsent(account.getId(), account);
+            }
+        }
+        return balanceLedgerService.currentBalances(distinct.values());
+    }
+
+    private BillingAccountResponse toAccountResponse(BillingAccount account, Map<Long, BigDecimal> balances) {
+        Long storeId = account.getStore() != null ? account.getStore().getId() : null;
+        IncludedResources included = IncludedResources.forCurrentRequest();
+        BillingAccountResponse response;
+        if (included == null || storeId == null) {
+            response = new BillingAccountResponse(account, storeId != null ? storeDirectoryCache.get(storeId) : null);
+        } else {
+            response = new BillingAccountResponse(account, null);
+            response.setStoreId(storeId);
+            included.includeStore(storeId, () -> compactStore(storeDirectoryCache.get(storeId), included));
+        }
+        response.setBalance(balances.getOrDefault(account.getId(), account.getBalance()));
+        return response;
+    }
+
+    private InvoiceResponse toInvoiceResponse(Invoice invoice, Map<Long, BigDecimal> balances) {
+        BillingAccount account = invoice.getBillingAccount();
+        IncludedResources included = IncludedResources.forCurrentRequest();
+        if (included == null || account == null) {
+            return new InvoiceResponse(invoice, account != null ? toAccountResponse(account, balances) : null);
+        }
+        InvoiceResponse response = new InvoiceResponse(invoice, null);
+        response.setBillingAccountId(account.getId());
+        included.includeBillingAccount(account.getId(), () -> toAccountResponse(account, balances));
+        return response;
+    }
+
+    private PaymentResponse toPaymentResponse(Payment payment, Map<Long, BigDecimal> balances) {
+        Invoice invoice = payment.getInvoice();
+        IncludedResources included = IncludedResources.forCurrentRequest();
+        if (included == null || invoice == null) {
+            return new PaymentResponse(payment, invoice != null ? toInvoiceResponse(invoice, balances) : null);
+        }
+        PaymentResponse response = new PaymentResponse(payment, null);
+        response.setInvoiceId(invoice.getId());
+        included.includeInvoice(invoice.getId(), () -> toInvoiceResponse(invoice, balances));
+        return response;
+    }
+
+    /** The cache hands out a private copy, so it is safe to detach the manager from it. */
+    private StoreResponse compactStore(StoreResponse store, IncludedResources included) {
+        if (store != null && store.getManager() != null) {
+            UserResponse manager = store.getManager();
+            store.setManagerId(manager.getId());
+            store.setManager(null);
+            included.includeUser(manager.getId(), () -> manager);
+        }
+        return store;
+    }
+}
@@ -0,0 +1,227 @@
+package com.b2b.service;
+
+import com.b2b.entity.BillingAccount;
+import com.b2b.entity.Invoice;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Outstanding invoice amount against the credit limit of every CREDIT
+ * billing account, held in memory. Invoice creation reserves against it
+ * atomically; other invoice and payment writes apply their delta once their
+ * transaction commits. Each node keeps its own copy and reloads it from the
+ * database periodically, which also repairs drift from writes made on
+ * other nodes in the meantime. A reload reconciles account by account:
+ * reservations of transactions still in flight are carried over, and an
+ * account that changed while the database was being read keeps its
+ * in-memory figure until the next reload.
+ */
+@Component
+public class CreditExposureIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CreditExposureIndex.class);
+
+    /** Invoice statuses whose unpaid remainder counts against the credit limit. */
+    private static final Set<Invoice.Status> OPEN_STATUSES =
+        EnumSet.of(Invoice.Status.DRAFT, Invoice.Status.SENT, Invoice.Status.OVERDUE);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, Exposure> accounts = new ConcurrentHashMap<>();
+
+    @Value("${app.billing.credit.enforce:true}")
+    private boolean enforce;
+
+    @Autowired
+    public CreditExposureIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.billing.credit.reload-interval-ms:300000}",
+               fixedDelayString = "${app.billing.credit.reload-interval-ms:300000}")
+    public void reload() {
+        Map<Long, Long> changesBefore = new HashMap<>();
+        accounts.forEach((id, e) -> changesBefore.put(id, e.changes));
+
+        Map<Long, Exposure> loaded = new HashMap<>();
+        jdbcTemplate.query("SELECT id, credit_limit FROM billing_accounts WHERE account_type = 'CREDIT'", rs -> {
+            loaded.put(rs.getLong(1), new Exposure(rs.getBigDecimal(2), BigDecimal.ZERO, BigDecimal.ZERO, 0));
+        });
+        jdbcTemplate.query("SELECT billing_account_id, SUM(total_amount - paid_amount) FROM invoices " +
+                "WHERE status IN ('DRAFT', 'SENT', 'OVERDUE') GROUP BY billing_account_id", rs -> {
+            loaded.computeIfPresent(rs.getLong(1), (id, e) ->
+                new Exposure(e.creditLimit, rs.getBigDecimal(2), BigDecimal.ZERO, 0));
+        });
+
+        int[] skipped = {0};
+        for (Map.Entry<Long, Exposure> entry : loaded.entrySet()) {
+            Long accountId = entry.getKey();
+            Exposure fromDatabase = entry.getValue();
+            Long before = changesBefore.get(accountId);
+            accounts.compute(accountId, (id, e) -> {
+                if (e == null) {
+                    // Removed on this node while the database was being read
+                    return before == null ? fromDatabase : null;
+                }
+                if (before == null || e.changes != before) {
+                    skipped[0]++;
+                    return e;
+                }
+                return new Exposure(fromDatabase.creditLimit, fromDatabase.committed, e.reserved, e.changes);
+            });
+        }
+        // Gone from the database and untouched since the read started
+        changesBefore.forEach((id, changes) -> {
+            if (!loaded.containsKey(id)) {
+                accounts.computeIfPresent(id, (key, e) -> e.changes == changes && e.reserved.signum() == 0 ? null : e);
+            }
+        });
+        logger.debug("Reconciled credit exposure for {} accounts, {} changed during the reload", loaded.size(), skipped[0]);
+    }
+
+    /**
+     * Adds {@code amount} to the account's exposure if it stays within the credit limit.
+     * The reservation is released if the surrounding transaction rolls back.
+     */
+    public boolean tryReserve(Long accountId, BigDecimal amount) {
+        boolean[] granted = {true};
+        boolean[] tracked = {false};
+        accounts.computeIfPresent(accountId, (id, e) -> {
+            tracked[0] = true;
+            BigDecimal next = e.outstanding().add(amount);
+            if (enforce && e.creditLimit != null && next.compareTo(e.creditLimit) > 0) {
+                granted[0] = false;
+                return e;
+            }
+            return new Exposure(e.creditLimit, e.committed, e.reserved.add(amount), e.changes);
+        });
+        if (!tracked[0] || !granted[0]) {
+            return granted[0];
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    settle(accountId, amount, status == STATUS_COMMITTED);
+                }
+            });
+        } else {
+            settle(accountId, amount, true);
+        }
+        return true;
+    }
+
+    /** Applies a change in outstanding amount once the current transaction commits. */
+    public void adjust(Long accountId, BigDecimal delta) {
+        if (delta.signum() == 0) {
+            return;
+        }
+        afterCommit(() -> apply(accountId, delta));
+    }
+
+    public void accountChanged(BillingAccount account) {
+        Long accountId = account.getId();
+        if (account.getAccountType() != BillingAccount.AccountType.CREDIT) {
+            afterCommit(() -> accounts.remove(accountId));
+            return;
+        }
+        BigDecimal creditLimit = account.getCreditLimit();
+        afterCommit(() -> accounts.compute(accountId, (id, e) -> e != null
+            ? new Exposure(creditLimit, e.committed, e.reserved, e.changes + 1)
+            : new Exposure(creditLimit, BigDecimal.ZERO, BigDecimal.ZERO, 0)));
+    }
+
+    public void accountRemoved(Long accountId) {
+        afterCommit(() -> accounts.remove(accountId));
+    }
+
+    public BigDecimal getOutstanding(Long accountId) {
+        Exposure exposure = accounts.get(accountId);
+        return exposure != null ? exposure.outstanding() : BigDecimal.ZERO;
+    }
+
+    public List<Long> findOverLimitAccountIds() {
+        List<Long> ids = new ArrayList<>();
+        accounts.forEach((id, e) -> {
+            if (e.creditLimit != null && e.outstanding().compareTo(e.creditLimit) > 0) {
+                ids.add(id);
+            }
+        });
+        ids.sort(null);
+        return ids;
+    }
+
+    /** The part of an invoice that counts against credit if it had the given status. */
+    public static BigDecimal outstanding(Invoice invoice, Invoice.Status status) {
+        if (!OPEN_STATUSES.contains(status)) {
+            return BigDecimal.ZERO;
+        }
+        return invoice.getRemainingAmount().max(BigDecimal.ZERO);
+    }
+
+    private void apply(Long accountId, BigDecimal delta) {
+        accounts.computeIfPresent(accountId, (id, e) ->
+            new Exposure(e.creditLimit, e.committed.add(delta), e.reserved, e.changes + 1));
+    }
+
+    /** Moves a finished reservation out of {@code reserved}, into {@code committed} if it committed. */
+    private void settle(Long accountId, BigDecimal amount, boolean committed) {
+        accounts.computeIfPresent(accountId, (id, e) -> new Exposure(e.creditLimit,
+            committed ? e.committed.add(amount) : e.committed, e.reserved.subtract(amount), e.changes + 1));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * {@code committed} mirrors the database; {@code reserved} is held by invoice
+     * creations whose transaction has not finished. {@code changes} counts the
+     * committed changes, so a reload can tell that it raced with one.
+     */
+    private static final class Exposure {
+        final BigDecimal creditLimit;
+        final BigDecimal committed;
+        final BigDecimal reserved;
+        final long changes;
+
+        Exposure(BigDecimal creditLimit, BigDecimal committed, BigDecimal reserved, long changes) {
+            this.creditLimit = creditLimit;
+            this.committed = committed != null ? committed : BigDecimal.ZERO;
+            this.reserved = reserved;
+            this.changes = changes;
+        }
+
+        BigDecimal outstanding() {
+            return committed.add(reserved);
+        }
+    }
+}
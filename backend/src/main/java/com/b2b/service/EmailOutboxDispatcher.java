@@ -0,0 +1,223 @@
+package com.b2b.service;
+
+import com.b2b.dto.response.JobRunResponse;
+import com.b2b.entity.EmailOutbox;
+import com.b2b.repository.EmailOutboxRepository;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Drains {@code email_outbox}. Each batch is handed to
+ * {@link JavaMailSender#send(MimeMessage...)}, which delivers every message
+ * over a single SMTP connection instead of reconnecting per message.
+ * Failed messages are retried with exponential backoff until
+ * {@code max-attempts} is reached, after which they are marked FAILED.
+ * <p>
+ * Rows are claimed with a conditional UPDATE before they are sent, so a node
+ * that takes over the lease while a slow batch is still in flight skips
+ * them. A run stops starting new batches once half of its lease has passed.
+ */
+@Component
+public class EmailOutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    static final String JOB_NAME = "email-outbox-dispatcher";
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final JavaMailSender mailSender;
+    private final SchedulerLockService schedulerLockService;
+    private final JobRunRegistry jobRunRegistry;
+
+    @Value("${app.mail.from}")
+    private String fromEmail;
+
+    @Value("${app.mail.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.mail.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.mail.outbox.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${app.mail.outbox.initial-backoff-seconds:30}")
+    private long initialBackoffSeconds;
+
+    @Value("${app.mail.outbox.max-backoff-seconds:3600}")
+    private long maxBackoffSeconds;
+
+    @Value("${app.mail.outbox.lock-seconds:120}")
+    private long lockSeconds;
+
+    /** How long a claimed row stays reserved; must exceed the time one SMTP batch can take. */
+    @Value("${app.mail.outbox.claim-seconds:300}")
+    private long claimSeconds;
+
+    @Autowired
+    public EmailOutboxDispatcher(EmailOutboxRepository emailOutboxRepository,
+                                 JavaMailSender mailSender,
+                                 SchedulerLockService schedulerLockService,
+                                 JobRunRegistry jobRunRegistry) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.mailSender = mailSender;
+        this.schedulerLockService = schedulerLockService;
+        this.jobRunRegistry = jobRunRegistry;
+    }
+
+    @Scheduled(initialDelayString = "${app.mail.outbox.initial-delay-ms:10000}",
+               fixedDelayString = "${app.mail.outbox.interval-ms:5000}")
+    public void dispatch() {
+        if (!enabled || !schedulerLockService.tryLock(JOB_NAME, Duration.ofSeconds(lockSeconds))) {
+            return;
+        }
+        try {
+            LocalDateTime startedAt = LocalDateTime.now();
+            long start = System.nanoTime();
+            long deadline = start + Duration.ofSeconds(lockSeconds).toNanos() / 2;
+            long sent = 0;
+            int batchSent;
+            int found;
+            do {
+                List<Long> dueIds = emailOutboxRepository.findClaimableIds(EmailOutbox.Status.PENDING,
+                    LocalDateTime.now(), PageRequest.of(0, batchSize));
+                found = dueIds.size();
+                List<EmailOutbox> batch = found == 0 ? List.of() : claim(dueIds);
+                batchSent = batch.isEmpty() ? 0 : sendBatch(batch);
+                sent += batchSent;
+                // Stop early when the server is rejecting everything; the next tick retries
+            } while (found == batchSize && batchSent > 0 && System.nanoTime() < deadline);
+
+            if (sent > 0) {
+                long durationMillis = (System.nanoTime() - start) / 1_000_000;
+                jobRunRegistry.record(new JobRunResponse(JOB_NAME, schedulerLockService.getNodeId(),
+                    startedAt, durationMillis, sent));
+            }
+        } finally {
+            schedulerLockService.unlock(JOB_NAME);
+        }
+    }
+
+    private List<EmailOutbox> claim(List<Long> ids) {
+        String claim = schedulerLockService.getNodeId() + ":" + UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        int claimed = emailOutboxRepository.claim(ids, EmailOutbox.Status.PENDING, claim, now,
+            now.plusSeconds(claimSeconds));
+        return claimed == 0 ? List.of() : emailOutboxRepository.findByClaimedByOrderById(claim);
+    }
+
+    private int sendBatch(List<EmailOutbox> batch) {
+        Map<MimeMessage, EmailOutbox> byMessage = new IdentityHashMap<>();
+        List<MimeMessage> messages = new ArrayList<>(batch.size());
+        Map<EmailOutbox, Exception> failures = new IdentityHashMap<>();
+
+        for (EmailOutbox entry : batch) {
+            try {
+                MimeMessage message = toMimeMessage(entry);
+                byMessage.put(message, entry);
+                messages.add(message);
+            } catch (MessagingException e) {
+                failures.put(entry, e);
+            }
+        }
+
+        if (!messages.isEmpty()) {
+            try {
+                mailSender.send(messages.toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                for (Map.Entry<Object, Exception> failed : e.getFailedMessages().entrySet()) {
+                    EmailOutbox entry = byMessage.get(failed.getKey());
+                    if (entry != null) {
+                        failures.put(entry, failed.getValue());
+                    }
+                }
+                if (e.getFailedMessages().isEmpty()) {
+                    // Connection level failure: nothing in the batch went out
+                    messages.forEach(message -> failures.put(byMessage.get(message), e));
+                }
+            } catch (MailException e) {
+                messages.forEach(message -> failures.put(byMessage.get(message), e));
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> sentIds = new ArrayList<>(batch.size());
+        List<EmailOutbox> retries = new ArrayList<>(failures.size());
+        for (EmailOutbox entry : batch) {
+            Exception failure = failures.get(entry);
+            if (failure == null) {
+                sentIds.add(entry.getId());
+            } else {
+                scheduleRetry(entry, failure, now);
+                retries.add(entry);
+            }
+        }
+        if (!sentIds.isEmpty()) {
+            emailOutboxRepository.markSent(sentIds, EmailOutbox.Status.SENT, now);
+        }
+        if (!retries.isEmpty()) {
+            emailOutboxRepository.saveAll(retries);
+        }
+
+        if (!failures.isEmpty()) {
+            logger.warn("郵件寄送失敗 {} 封，已安排重試", failures.size());
+        }
+        logger.info("已寄出 {} 封郵件", sentIds.size());
+        return sentIds.size();
+    }
+
+    private MimeMessage toMimeMessage(EmailOutbox entry) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+        helper.setFrom(fromEmail);
+        helper.setTo(entry.getRecipient());
+        helper.setSubject(entry.getSubject());
+        helper.setText(entry.getBody());
+        return message;
+    }
+
+    private void scheduleRetry(EmailOutbox entry, Exception failure, LocalDateTime now) {
+        int attempts = entry.getAttempts() + 1;
+        entry.setAttempts(attempts);
+        entry.setClaimedBy(null);
+        entry.setClaimedUntil(null);
+        String error = String.valueOf(failure.getMessage());
+        entry.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+
+        if (attempts >= maxAttempts) {
+            entry.setStatus(EmailOutbox.Status.FAILED);
+            logger.error("郵件寄送已放棄，收件人: {}，嘗試次數: {}", entry.getRecipient(), attempts);
+            return;
+        }
+        long backoff = initialBackoffSeconds << Math.min(attempts - 1, 20);
+        entry.setNextAttemptAt(now.plusSeconds(Math.min(backoff, maxBackoffSeconds)));
+    }
+
+    public Map<EmailOutbox.Status, Long> stats() {
+        Map<EmailOutbox.Status, Long> counts = new EnumMap<>(EmailOutbox.Status.class);
+        for (EmailOutbox.Status status : EmailOutbox.Status.values()) {
+            counts.put(status, emailOutboxRepository.countByStatus(status));
+        }
+        return counts;
+    }
+}
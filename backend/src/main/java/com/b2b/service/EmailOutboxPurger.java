@@ -0,0 +1,98 @@
+package com.b2b.service;
+
+import com.b2b.dto.response.JobRunResponse;
+import com.b2b.entity.EmailOutbox;
+import com.b2b.repository.EmailOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Deletes SENT and FAILED outbox rows once they are older than the retention
+ * period, so password reset links and other message bodies do not stay in
+ * {@code email_outbox} forever. Deletes go by primary key in small batches,
+ * as in {@link PasswordResetTokenSweeper}.
+ */
+@Component
+public class EmailOutboxPurger {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxPurger.class);
+
+    static final String JOB_NAME = "email-outbox-purger";
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final SchedulerLockService schedulerLockService;
+    private final JobRunRegistry jobRunRegistry;
+
+    @Value("${app.mail.outbox.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.mail.outbox.retention.days:7}")
+    private int retentionDays;
+
+    @Value("${app.mail.outbox.retention.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.mail.outbox.retention.pause-ms:100}")
+    private long pauseMs;
+
+    @Value("${app.mail.outbox.retention.lock-seconds:600}")
+    private long lockSeconds;
+
+    @Autowired
+    public EmailOutboxPurger(EmailOutboxRepository emailOutboxRepository,
+                             SchedulerLockService schedulerLockService,
+                             JobRunRegistry jobRunRegistry) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.schedulerLockService = schedulerLockService;
+        this.jobRunRegistry = jobRunRegistry;
+    }
+
+    @Scheduled(initialDelayString = "${app.mail.outbox.retention.initial-delay-ms:120000}",
+               fixedDelayString = "${app.mail.outbox.retention.interval-ms:3600000}")
+    public void purge() {
+        if (!enabled || !schedulerLockService.tryLock(JOB_NAME, Duration.ofSeconds(lockSeconds))) {
+            return;
+        }
+        try {
+            LocalDateTime startedAt = LocalDateTime.now();
+            LocalDateTime cutoff = startedAt.minusDays(retentionDays);
+            long start = System.nanoTime();
+            long purged = 0;
+
+            while (true) {
+                List<Long> ids = emailOutboxRepository.findPurgeableIds(EmailOutbox.Status.PENDING, cutoff,
+                    PageRequest.of(0, batchSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                emailOutboxRepository.deleteAllByIdInBatch(ids);
+                purged += ids.size();
+                if (ids.size() < batchSize) {
+                    break;
+                }
+                try {
+                    Thread.sleep(pauseMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+
+            long durationMillis = (System.nanoTime() - start) / 1_000_000;
+            jobRunRegistry.record(new JobRunResponse(JOB_NAME, schedulerLockService.getNodeId(),
+                startedAt, durationMillis, purged));
+            logger.info("Purged {} outbox rows older than {} days ({} ms)", purged, retentionDays, durationMillis);
+        } finally {
+            schedulerLockService.unlock(JOB_NAME);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.b2b.service;
+
+import com.b2b.entity.NumberSequence;
+import com.b2b.repository.NumberSequenceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out invoice numbers from blocks reserved in {@code number_sequences}
+ * (hi/lo allocation). Reserving a block locks the sequence row for one short
+ * transaction; numbers inside a block come from an {@link AtomicLong}, so
+ * they are unique across nodes and increasing on each node.
+ * Unused numbers of a block are skipped after a restart.
+ * <p>
+ * The row is seeded with an idempotent INSERT IGNORE before the first
+ * locking read, so the read always locks an existing row: no create race
+ * between nodes, and no gap lock on an empty range to deadlock on.
+ */
+@Component
+public class InvoiceNumberAllocator {
+
+    static final String SEQUENCE_NAME = "invoice_number";
+
+    private final NumberSequenceRepository numberSequenceRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Object refillLock = new Object();
+
+    @Value("${app.invoice-number.format:INV-%08d}")
+    private String format;
+
+    @Value("${app.invoice-number.block-size:100}")
+    private int blockSize;
+
+    @Value("${app.invoice-number.initial-value:1}")
+    private long initialValue;
+
+    private volatile Block current = new Block(0, 0);
+    private volatile boolean seeded;
+
+    @Autowired
+    public InvoiceNumberAllocator(NumberSequenceRepository numberSequenceRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this.numberSequenceRepository = numberSequenceRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public String nextInvoiceNumber() {
+        return String.format(format, nextValue());
+    }
+
+    public long nextValue() {
+        while (true) {
+            Block block = current;
+            long value = block.next.getAndIncrement();
+            if (value < block.end) {
+                return value;
+            }
+            synchronized (refillLock) {
+                if (current == block) {
+                    current = reserveBlock();
+                }
+            }
+        }
+    }
+
+    private Block reserveBlock() {
+        if (!seeded) {
+            transactionTemplate.executeWithoutResult(status ->
+                numberSequenceRepository.insertIfAbsent(SEQUENCE_NAME, initialValue));
+            seeded = true;
+        }
+        return transactionTemplate.execute(status -> reserveBlockInTransaction());
+    }
+
+    private Block reserveBlockInTransaction() {
+        NumberSequence sequence = numberSequenceRepository.findByNameForUpdate(SEQUENCE_NAME)
+            .orElseThrow(() -> new IllegalStateException("Number sequence row missing: " + SEQUENCE_NAME));
+        long low = sequence.getNextValue();
+        sequence.setNextValue(low + blockSize);
+        return new Block(low, low + blockSize);
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.b2b.service;
+
+import com.b2b.dto.response.JobRunResponse;
+import com.b2b.dto.response.ReconciliationResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares {@code invoices.paid_amount} with the sum of COMPLETED payments and
+ * repairs differences. Works through invoices in id ranges, one short
+ * statement per range, so it never locks more than a batch of invoices.
+ * {@link #backfill()} rewrites every row and is meant for the first rollout
+ * of the column; the nightly check only touches mismatched rows.
+ */
+@Component
+public class InvoicePaidAmountReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvoicePaidAmountReconciler.class);
+
+    static final String JOB_NAME = "invoice-paid-amount-check";
+
+    private static final String COMPLETED_SUM =
+        "(SELECT COALESCE(SUM(p.amount), 0) FROM payments p WHERE p.invoice_id = i.id AND p.status = 'COMPLETED')";
+
+    private static final int SAMPLE_SIZE = 20;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SchedulerLockService schedulerLockService;
+    private final JobRunRegistry jobRunRegistry;
+
+    @Value("${app.billing.paid-amount.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.billing.paid-amount.check.enabled:true}")
+    private boolean checkEnabled;
+
+    @Value("${app.billing.paid-amount.check.repair:true}")
+    private boolean repair;
+
+    @Value("${app.billing.paid-amount.check.lock-seconds:3600}")
+    private long lockSeconds;
+
+    @Autowired
+    public InvoicePaidAmountReconciler(JdbcTemplate jdbcTemplate,
+                                       SchedulerLockService schedulerLockService,
+                                       JobRunRegistry jobRunRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schedulerLockService = schedulerLockService;
+        this.jobRunRegistry = jobRunRegistry;
+    }
+
+    @Scheduled(cron = "${app.billing.paid-amount.check.cron:0 0 4 * * *}")
+    public void scheduledCheck() {
+        if (!checkEnabled || !schedulerLockService.tryLock(JOB_NAME, Duration.ofSeconds(lockSeconds))) {
+            return;
+        }
+        try {
+            LocalDateTime startedAt = LocalDateTime.now();
+            long start = System.nanoTime();
+            ReconciliationResponse result = check(repair);
+            jobRunRegistry.record(new JobRunResponse(JOB_NAME, schedulerLockService.getNodeId(), startedAt,
+                (System.nanoTime() - start) / 1_000_000, result.getMismatches()));
+        } finally {
+            schedulerLockService.unlock(JOB_NAME);
+        }
+    }
+
+    /** Recomputes paid_amount for every invoice; returns the number of invoices visited. */
+    public long backfill() {
+        long visited = 0;
+        long maxId = maxInvoiceId();
+        for (long from = 1; from <= maxId; from += batchSize) {
+            visited += jdbcTemplate.update(
+                "UPDATE invoices i SET i.paid_amount = " + COMPLETED_SUM + ", i.version = i.version + 1 WHERE i.id BETWEEN ? AND ?",
+                from, from + batchSize - 1);
+        }
+        logger.info("Backfilled paid_amount on {} invoices", visited);
+        return visited;
+    }
+
+    /** Finds invoices whose paid_amount differs from their completed payments, optionally fixing them. */
+    public ReconciliationResponse check(boolean repairMismatches) {
+        long checked = 0;
+        long repaired = 0;
+        List<Long> mismatched = new ArrayList<>();
+        long mismatches = 0;
+        long maxId = maxInvoiceId();
+
+        for (long from = 1; from <= maxId; from += batchSize) {
+            long to = from + batchSize - 1;
+            checked += jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM invoices WHERE id BETWEEN ? AND ?", Long.class, from, to);
+            List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT i.id FROM invoices i WHERE i.id BETWEEN ? AND ? AND i.paid_amount <> " + COMPLETED_SUM,
+                Long.class, from, to);
+            if (ids.isEmpty()) {
+                continue;
+            }
+            mismatches += ids.size();
+            for (Long id : ids) {
+                if (mismatched.size() < SAMPLE_SIZE) {
+                    mismatched.add(id);
+                }
+                if (repairMismatches) {
+                    repaired += jdbcTemplate.update(
+                        "UPDATE invoices i SET i.paid_amount = " + COMPLETED_SUM + ", i.version = i.version + 1 WHERE i.id = ?", id);
+                }
+            }
+        }
+
+        if (mismatches > 0) {
+            logger.warn("Found {} invoices with a stale paid_amount (repaired {}), e.g. {}", mismatches, repaired, mismatched);
+        }
+        return new ReconciliationResponse(checked, mismatches, repaired, mismatched);
+    }
+
+    private long maxInvoiceId() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM invoices", Long.class);
+        return maxId != null ? maxId : 0;
+    }
+}
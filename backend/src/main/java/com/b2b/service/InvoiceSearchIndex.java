@@ -0,0 +1,185 @@
+package com.b2b.service;
+
+import com.b2b.entity.Invoice;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Trigram index over invoice number, description and account name, kept in
+ * {@code invoice_search_grams (gram, invoice_id)}. A term of three or more
+ * characters is answered from the primary key on (gram, invoice_id) instead of
+ * scanning invoices with leading-wildcard LIKEs. Every trigram of the term must
+ * be present, which yields a small superset that is verified before ranking.
+ * Writes use the caller's transaction.
+ */
+@Component
+public class InvoiceSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceSearchIndex.class);
+
+    public static final int GRAM_LENGTH = 3;
+
+    /** Candidates holding every trigram of the term, checked against the real text. */
+    private static final String MATCH_WHERE =
+        "WHERE i.id IN (SELECT invoice_id FROM invoice_search_grams WHERE gram IN (:grams) " +
+        "GROUP BY invoice_id HAVING COUNT(*) = :gramCount) " +
+        "AND (LOCATE(:term, LOWER(i.invoice_number)) > 0 OR LOCATE(:term, LOWER(a.account_name)) > 0 " +
+        "OR LOCATE(:term, LOWER(i.description)) > 0) ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Value("${app.search.invoice.rebuild-batch-size:1000}")
+    private int rebuildBatchSize;
+
+    @Autowired
+    public InvoiceSearchIndex(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+    }
+
+    @PostConstruct
+    public void createTable() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS invoice_search_grams (" +
+            "gram VARCHAR(" + GRAM_LENGTH + ") CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NOT NULL, " +
+            "invoice_id BIGINT NOT NULL, " +
+            "PRIMARY KEY (gram, invoice_id), " +
+            "KEY idx_invoice_search_grams_invoice (invoice_id))");
+    }
+
+    public void index(Invoice invoice) {
+        remove(invoice.getId());
+        indexNew(List.of(invoice));
+    }
+
+    /** Indexes invoices that have no grams yet, in one JDBC batch. */
+    public void indexNew(Collection<Invoice> invoices) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Invoice invoice : invoices) {
+            String accountName = invoice.getBillingAccount() != null ? invoice.getBillingAccount().getAccountName() : null;
+            for (String gram : documentGrams(invoice.getInvoiceNumber(), invoice.getDescription(), accountName)) {
+                rows.add(new Object[] {gram, invoice.getId()});
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT IGNORE INTO invoice_search_grams (gram, invoice_id) VALUES (?, ?)", rows);
+        }
+    }
+
+    public void remove(Long invoiceId) {
+        jdbcTemplate.update("DELETE FROM invoice_search_grams WHERE invoice_id = ?", invoiceId);
+    }
+
+    /** Whether {@link #findMatchingIds} can serve this term. */
+    public boolean supports(String term) {
+        String normalized = normalize(term);
+        return normalized.codePointCount(0, normalized.length()) >= GRAM_LENGTH;
+    }
+
+    /**
+     * One page of the ids of invoices whose number, account name or
+     * description contains the term, best match first: invoice number (exact,
+     * prefix, anywhere), then account name, then description, newest first
+     * within each rank. Trigram candidates are verified, ranked and paged in
+     * the database, so only the requested ids come back.
+     */
+    public List<Long> findMatchingIds(String term, long offset, int limit) {
+        MapSqlParameterSource params = matchParams(term)
+            .addValue("offset", offset)
+            .addValue("limit", limit);
+        return namedJdbcTemplate.queryForList(
+            "SELECT i.id FROM invoices i JOIN billing_accounts a ON a.id = i.billing_account_id " +
+            MATCH_WHERE +
+            "ORDER BY CASE WHEN LOWER(i.invoice_number) = :term THEN 0 " +
+            "WHEN LOCATE(:term, LOWER(i.invoice_number)) = 1 THEN 1 " +
+            "WHEN LOCATE(:term, LOWER(i.invoice_number)) > 0 THEN 2 " +
+            "WHEN LOCATE(:term, LOWER(a.account_name)) > 0 THEN 3 ELSE 4 END, i.id DESC " +
+            "LIMIT :limit OFFSET :offset",
+            params, Long.class);
+    }
+
+    /** Number of invoices {@link #findMatchingIds} pages through. */
+    public long countMatches(String term) {
+        Long count = namedJdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM invoices i JOIN billing_accounts a ON a.id = i.billing_account_id " + MATCH_WHERE,
+            matchParams(term), Long.class);
+        return count != null ? count : 0;
+    }
+
+    private static MapSqlParameterSource matchParams(String term) {
+        String normalized = normalize(term);
+        Set<String> grams = grams(normalized);
+        return new MapSqlParameterSource()
+            .addValue("term", normalized)
+            .addValue("grams", grams)
+            .addValue("gramCount", grams.size());
+    }
+
+    /** Re-indexes every invoice in id order, one batch per statement group. */
+    public long rebuild() {
+        jdbcTemplate.update("DELETE FROM invoice_search_grams");
+        long indexed = 0;
+        long lastId = 0;
+        while (true) {
+            List<Object[]> rows = new ArrayList<>();
+            List<Long> ids = new ArrayList<>();
+            jdbcTemplate.query(
+                "SELECT i.id, i.invoice_number, i.description, a.account_name FROM invoices i " +
+                "JOIN billing_accounts a ON a.id = i.billing_account_id WHERE i.id > ? ORDER BY i.id LIMIT ?",
+                rs -> {
+                    long id = rs.getLong(1);
+                    ids.add(id);
+                    for (String gram : documentGrams(rs.getString(2), rs.getString(3), rs.getString(4))) {
+                        rows.add(new Object[] {gram, id});
+                    }
+                },
+                lastId, rebuildBatchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate("INSERT IGNORE INTO invoice_search_grams (gram, invoice_id) VALUES (?, ?)", rows);
+            }
+            indexed += ids.size();
+            lastId = ids.get(ids.size() - 1);
+        }
+        logger.info("Rebuilt invoice search index for {} invoices", indexed);
+        return indexed;
+    }
+
+    public static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Grams are taken per field so that none spans two fields. */
+    private Set<String> documentGrams(String... fields) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (String field : fields) {
+            grams.addAll(grams(normalize(field)));
+        }
+        return grams;
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        int[] codePoints = text.codePoints().toArray();
+        for (int i = 0; i + GRAM_LENGTH <= codePoints.length; i++) {
+            grams.add(new String(codePoints, i, GRAM_LENGTH));
+        }
+        return grams;
+    }
+}
@@ -1,6 +1,9 @@
 package com.b2b.service;
 
 import com.b2b.dto.request.InvoiceCreateRequest;
+import com.b2b.dto.response.BatchGetResponse;
+import com.b2b.dto.response.CursorPage;
+import com.b2b.dto.response.InvoiceBulkCreateResponse;
 import com.b2b.dto.response.InvoiceResponse;
 import com.b2b.entity.BillingAccount;
 import com.b2b.entity.Invoice;
@@ -8,84 +11,221 @@ import com.b2b.entity.InvoiceItem;
 import com.b2b.exception.ResourceNotFoundException;
 import com.b2b.repository.BillingAccountRepository;
 import com.b2b.repository.InvoiceRepository;
+import com.b2b.repository.ProjectionQueryExecutor;
+import com.b2b.repository.SeekQueryExecutor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class InvoiceService {
 
+    /** Columns with a (column, id) index on invoices. */
+    private static final Set<String> SEEK_COLUMNS = Set.of("id", "createdAt", "dueDate", "issueDate");
+
+    /** Fields a sparse fieldset may select, mapped to their attribute paths. */
+    private static final Map<String, String> FIELDS = Map.ofEntries(
+        Map.entry("id", "id"), Map.entry("invoiceNumber", "invoiceNumber"),
+        Map.entry("billingAccountId", "billingAccount.id"), Map.entry("amount", "amount"),
+        Map.entry("taxAmount", "taxAmount"), Map.entry("totalAmount", "totalAmount"),
+        Map.entry("paidAmount", "paidAmount"), Map.entry("status", "status"),
+        Map.entry("issueDate", "issueDate"), Map.entry("dueDate", "dueDate"), Map.entry("paidDate", "paidDate"),
+        Map.entry("description", "description"), Map.entry("createdAt", "createdAt"),
+        Map.entry("updatedAt", "updatedAt"));
+
     private final InvoiceRepository invoiceRepository;
     private final BillingAccountRepository billingAccountRepository;
+    private final InvoiceNumberAllocator invoiceNumberAllocator;
+    private final TransactionTemplate transactionTemplate;
+    private final SeekQueryExecutor seekQueryExecutor;
+    private final InvoiceSearchIndex invoiceSearchIndex;
+    private final AccountTotalsService accountTotalsService;
+    private final CreditExposureIndex creditExposureIndex;
+    private final ProjectionQueryExecutor projectionQueryExecutor;
+    private final BillingResponseMapper billingResponseMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.billing.bulk.chunk-size:500}")
+    private int bulkChunkSize;
 
     @Autowired
     public InvoiceService(InvoiceRepository invoiceRepository, 
-                         BillingAccountRepository billingAccountRepository) {
+                         BillingAccountRepository billingAccountRepository,
+                         InvoiceNumberAllocator invoiceNumberAllocator,
+                         PlatformTransactionManager transactionManager,
+                         SeekQueryExecutor seekQueryExecutor,
+                         InvoiceSearchIndex invoiceSearchIndex,
+                         AccountTotalsService accountTotalsService,
+                         CreditExposureIndex creditExposureIndex,
+                         ProjectionQueryExecutor projectionQueryExecutor,
+                         BillingResponseMapper billingResponseMapper) {
         this.invoiceRepository = invoiceRepository;
         this.billingAccountRepository = billingAccountRepository;
+        this.invoiceNumberAllocator = invoiceNumberAllocator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.seekQueryExecutor = seekQueryExecutor;
+        this.invoiceSearchIndex = invoiceSearchIndex;
+        this.accountTotalsService = accountTotalsService;
+        this.creditExposureIndex = creditExposureIndex;
+        this.projectionQueryExecutor = projectionQueryExecutor;
+        this.billingResponseMapper = billingResponseMapper;
     }
 
     public InvoiceResponse createInvoice(InvoiceCreateRequest request) {
         BillingAccount billingAccount = billingAccountRepository.findById(request.getBillingAccountId())
             .orElseThrow(() -> new ResourceNotFoundException("Billing account not found with id: " + request.getBillingAccountId()));
 
-        Invoice invoice = new Invoice();
-        invoice.setInvoiceNumber(generateInvoiceNumber());
-        invoice.setBillingAccount(billingAccount);
-        invoice.setAmount(request.getAmount());
-        invoice.setTaxAmount(request.getTaxAmount());
-        invoice.setTotalAmount(request.getAmount().add(request.getTaxAmount()));
-        invoice.setIssueDate(LocalDate.now());
-        invoice.setDueDate(request.getDueDate());
-        invoice.setDescription(request.getDescription());
+        Invoice invoice = buildInvoice(request, billingAccount);
+        reserveCredit(invoice);
+        Invoice savedInvoice = invoiceRepository.save(invoice);
+        invoiceSearchIndex.indexNew(List.of(savedInvoice));
+        accountTotalsService.invoiceCreated(savedInvoice);
+        return billingResponseMapper.toInvoiceResponse(savedInvoice);
+    }
 
-        // Add invoice items if provided
-        if (request.getItems() != null && !request.getItems().isEmpty()) {
-            List<InvoiceItem> items = request.getItems().stream()
-                .map(itemRequest -> {
-                    InvoiceItem item = new InvoiceItem();
-                    item.setInvoice(invoice);
-                    item.setDescription(itemRequest.getDescription());
-                    item.setQuantity(itemRequest.getQuantity());
-                    item.setUnitPrice(itemRequest.getUnitPrice());
-                    item.setTotalPrice(itemRequest.getQuantity().multiply(itemRequest.getUnitPrice()));
-                    return item;
-                })
-                .collect(Collectors.toList());
-            invoice.setInvoiceItems(items);
+    /**
+     * Creates many invoices with batched inserts. Rows are committed in chunks
+     * of {@code app.billing.bulk.chunk-size}, so one bad row only costs its own
+     * chunk a retry rather than rolling back the whole request. If a chunk
+     * fails, its rows are retried one by one to report which row was at fault.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public InvoiceBulkCreateResponse createInvoicesBulk(List<InvoiceCreateRequest> requests) {
+        long start = System.nanoTime();
+
+        List<Long> accountIds = requests.stream()
+            .map(InvoiceCreateRequest::getBillingAccountId)
+            .filter(Objects::nonNull)
+            .distinct()
+            .collect(Collectors.toList());
+        Map<Long, BillingAccount> accounts = billingAccountRepository.findAllById(accountIds).stream()
+            .collect(Collectors.toMap(BillingAccount::getId, Function.identity()));
+
+        List<InvoiceBulkCreateResponse.RowResult> results = new ArrayList<>(requests.size());
+        for (int from = 0; from < requests.size(); from += bulkChunkSize) {
+            int to = Math.min(from + bulkChunkSize, requests.size());
+            results.addAll(createChunk(requests, from, to, accounts));
         }
 
-        Invoice savedInvoice = invoiceRepository.save(invoice);
-        return new InvoiceResponse(savedInvoice);
+        long durationMillis = (System.nanoTime() - start) / 1_000_000;
+        return new InvoiceBulkCreateResponse(results, durationMillis);
+    }
+
+    private List<InvoiceBulkCreateResponse.RowResult> createChunk(List<InvoiceCreateRequest> requests, int from, int to,
+                                                                  Map<Long, BillingAccount> accounts) {
+        List<InvoiceBulkCreateResponse.RowResult> results = new ArrayList<>(to - from);
+        List<Integer> indexes = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            if (accounts.containsKey(requests.get(i).getBillingAccountId())) {
+                indexes.add(i);
+            } else {
+                results.add(InvoiceBulkCreateResponse.RowResult.failed(i,
+                    "Billing account not found with id: " + requests.get(i).getBillingAccountId()));
+            }
+        }
+
+        try {
+            results.addAll(insertRows(requests, indexes, accounts));
+        } catch (RuntimeException chunkFailure) {
+            for (Integer index : indexes) {
+                try {
+                    results.addAll(insertRows(requests, List.of(index), accounts));
+                } catch (RuntimeException rowFailure) {
+                    results.add(InvoiceBulkCreateResponse.RowResult.failed(index, rowFailure.getMessage()));
+                }
+            }
+        }
+        results.sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+        return results;
+    }
+
+    private List<InvoiceBulkCreateResponse.RowResult> insertRows(List<InvoiceCreateRequest> requests, List<Integer> indexes,
+                                                                 Map<Long, BillingAccount> accounts) {
+        return transactionTemplate.execute(status -> {
+            List<Invoice> invoices = new ArrayList<>(indexes.size());
+            for (Integer index : indexes) {
+                InvoiceCreateRequest request = requests.get(index);
+                Invoice invoice = buildInvoice(request, accounts.get(request.getBillingAccountId()));
+                reserveCredit(invoice);
+                invoices.add(invoice);
+            }
+            List<Invoice> saved = invoiceRepository.saveAll(invoices);
+            entityManager.flush();
+            invoiceSearchIndex.indexNew(saved);
+            saved.forEach(accountTotalsService::invoiceCreated);
+            entityManager.clear();
+
+            List<InvoiceBulkCreateResponse.RowResult> created = new ArrayList<>(indexes.size());
+            for (int i = 0; i < indexes.size(); i++) {
+                Invoice invoice = saved.get(i);
+                created.add(InvoiceBulkCreateResponse.RowResult.created(indexes.get(i), invoice.getId(),
+                    invoice.getInvoiceNumber()));
+            }
+            return created;
+        });
     }
 
     @Transactional(readOnly = true)
     public InvoiceResponse getInvoiceById(Long id) {
-        Invoice invoice = invoiceRepository.findById(id)
+        Invoice invoice = invoiceRepository.findDetailById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Invoice not found with id: " + id));
-        return new InvoiceResponse(invoice);
+        return billingResponseMapper.toInvoiceResponse(invoice);
+    }
+
+    @Transactional(readOnly = true)
+    public BatchGetResponse<InvoiceResponse> getInvoicesByIds(List<Long> ids) {
+        List<Long> distinct = BatchGetResponse.distinctIds(ids);
+        List<Invoice> found = invoiceRepository.findByIdIn(distinct);
+        return BatchGetResponse.of(distinct, found, Invoice::getId, billingResponseMapper.invoiceMapper(found));
     }
 
     @Transactional(readOnly = true)
     public InvoiceResponse getInvoiceByNumber(String invoiceNumber) {
         Invoice invoice = invoiceRepository.findByInvoiceNumber(invoiceNumber)
             .orElseThrow(() -> new ResourceNotFoundException("Invoice not found with number: " + invoiceNumber));
-        return new InvoiceResponse(invoice);
+        return billingResponseMapper.toInvoiceResponse(invoice);
     }
 
     @Transactional(readOnly = true)
     public Page<InvoiceResponse> getAllInvoices(Pageable pageable) {
-        return invoiceRepository.findAll(pageable)
-            .map(InvoiceResponse::new);
+        return billingResponseMapper.toInvoiceResponses(invoiceRepository.findAll(pageable));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> selectInvoices(String fields, Invoice.Status status, Pageable pageable) {
+        return projectionQueryExecutor.select(Invoice.class, FIELDS, ProjectionQueryExecutor.parseFields(fields),
+            Collections.singletonMap("status", status), pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<InvoiceResponse> seekInvoices(String sortBy, boolean descending, Invoice.Status status,
+                                                    String cursor, int size, boolean includeTotal) {
+        CursorPage<Invoice> page = seekQueryExecutor.seek(Invoice.class, SEEK_COLUMNS, sortBy, descending,
+                Collections.singletonMap("status", status), cursor, size, includeTotal, Invoice.GRAPH_ACCOUNT);
+        return billingResponseMapper.toInvoiceResponses(page);
     }
 
     @Transactional(readOnly = true)
@@ -93,10 +233,7 @@ public class InvoiceService {
         BillingAccount billingAccount = billingAccountRepository.findById(billingAccountId)
             .orElseThrow(() -> new ResourceNotFoundException("Billing account not found with id: " + billingAccountId));
         
-        return invoiceRepository.findByBillingAccount(billingAccount)
-            .stream()
-            .map(InvoiceResponse::new)
-            .collect(Collectors.toList());
+        return billingResponseMapper.toInvoiceResponses(invoiceRepository.findByBillingAccount(billingAccount));
     }
 
     @Transactional(readOnly = true)
@@ -104,64 +241,80 @@ public class InvoiceService {
         BillingAccount billingAccount = billingAccountRepository.findById(billingAccountId)
             .orElseThrow(() -> new ResourceNotFoundException("Billing account not found with id: " + billingAccountId));
         
-        return invoiceRepository.findByBillingAccount(billingAccount, pageable)
-            .map(InvoiceResponse::new);
+        return billingResponseMapper.toInvoiceResponses(invoiceRepository.findByBillingAccount(billingAccount, pageable));
     }
 
     @Transactional(readOnly = true)
     public List<InvoiceResponse> getInvoicesByStore(Long storeId) {
-        return invoiceRepository.findByStoreId(storeId)
-            .stream()
-            .map(InvoiceResponse::new)
-            .collect(Collectors.toList());
+        return billingResponseMapper.toInvoiceResponses(invoiceRepository.findByStoreId(storeId));
     }
 
     @Transactional(readOnly = true)
     public Page<InvoiceResponse> getInvoicesByStore(Long storeId, Pageable pageable) {
-        return invoiceRepository.findByStoreId(storeId, pageable)
-            .map(InvoiceResponse::new);
+        return billingResponseMapper.toInvoiceResponses(invoiceRepository.findByStoreId(storeId, pageable));
     }
 
     @Transactional(readOnly = true)
     public Page<InvoiceResponse> getInvoicesByStatus(Invoice.Status status, Pageable pageable) {
-        return invoiceRepository.findByStatus(status, pageable)
-            .map(InvoiceResponse::new);
+        return billingResponseMapper.toInvoiceResponses(invoiceRepository.findByStatus(status, pageable));
     }
 
+    /**
+     * Terms of three or more characters go through {@link InvoiceSearchIndex},
+     * which verifies, ranks and pages the matches in SQL; only the invoices on
+     * the requested page are loaded. Shorter terms fall back to the
+     * LIKE query and keep the requested sort.
+     */
     @Transactional(readOnly = true)
     public Page<InvoiceResponse> searchInvoices(String search, Pageable pageable) {
-        return invoiceRepository.findBySearchTerm(search, pageable)
-            .map(InvoiceResponse::new);
+        if (!invoiceSearchIndex.supports(search)) {
+            return billingResponseMapper.toInvoiceResponses(invoiceRepository.findBySearchTerm(search, pageable));
+        }
+
+        long total = invoiceSearchIndex.countMatches(search);
+        List<Long> pageIds = pageable.getOffset() < total
+            ? invoiceSearchIndex.findMatchingIds(search, pageable.getOffset(), pageable.getPageSize())
+            : List.of();
+        if (pageIds.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, total);
+        }
+
+        Map<Long, Invoice> byId = invoiceRepository.findByIdIn(pageIds).stream()
+            .collect(Collectors.toMap(Invoice::getId, Function.identity()));
+        List<Invoice> invoices = pageIds.stream()
+            .map(byId::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+        List<InvoiceResponse> content = billingResponseMapper.toInvoiceResponses(invoices);
+        return new PageImpl<>(content, pageable, total);
     }
 
     @Transactional(readOnly = true)
     public List<InvoiceResponse> getOverdueInvoices() {
-        return invoiceRepository.findOverdueInvoices(Invoice.Status.SENT, LocalDate.now())
-            .stream()
-            .map(InvoiceResponse::new)
-            .collect(Collectors.toList());
+        return billingResponseMapper.toInvoiceResponses(invoiceRepository.findOverdueOrPastDue(LocalDate.now()));
     }
 
     @Transactional(readOnly = true)
     public List<InvoiceResponse> getInvoicesDueBetween(LocalDate startDate, LocalDate endDate) {
-        return invoiceRepository.findInvoicesDueBetween(startDate, endDate)
-            .stream()
-            .map(InvoiceResponse::new)
-            .collect(Collectors.toList());
+        return billingResponseMapper.toInvoiceResponses(invoiceRepository.findInvoicesDueBetween(startDate, endDate));
     }
 
     @Transactional(readOnly = true)
     public List<InvoiceResponse> getInvoicesIssuedBetween(LocalDate startDate, LocalDate endDate) {
-        return invoiceRepository.findInvoicesIssuedBetween(startDate, endDate)
-            .stream()
-            .map(InvoiceResponse::new)
-            .collect(Collectors.toList());
+        return billingResponseMapper.toInvoiceResponses(invoiceRepository.findInvoicesIssuedBetween(startDate, endDate));
     }
 
     public InvoiceResponse updateInvoiceStatus(Long id, Invoice.Status status) {
         Invoice invoice = invoiceRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Invoice not found with id: " + id));
         
+        Invoice.Status previousStatus = invoice.getStatus();
+        // PAID follows paid_amount, which only completed payments move; see PaymentService
+        if (status == Invoice.Status.PAID && previousStatus != Invoice.Status.PAID
+                && invoice.getRemainingAmount().signum() > 0) {
+            throw new IllegalStateException("Invoice " + id + " still has " + invoice.getRemainingAmount()
+                + " outstanding; record a payment instead of marking it paid");
+        }
         invoice.setStatus(status);
         
         if (status == Invoice.Status.PAID) {
@@ -169,7 +322,11 @@ public class InvoiceService {
         }
         
         Invoice updatedInvoice = invoiceRepository.save(invoice);
-        return new InvoiceResponse(updatedInvoice);
+        accountTotalsService.invoiceStatusChanged(updatedInvoice, previousStatus);
+        creditExposureIndex.adjust(invoice.getBillingAccount().getId(),
+            CreditExposureIndex.outstanding(invoice, status)
+                .subtract(CreditExposureIndex.outstanding(invoice, previousStatus)));
+        return billingResponseMapper.toInvoiceResponse(updatedInvoice);
     }
 
     public InvoiceResponse sendInvoice(Long id) {
@@ -192,24 +349,60 @@ public class InvoiceService {
             throw new IllegalStateException("Only draft invoices can be deleted");
         }
         
+        // Payments are removed with the invoice by cascade
+        if (invoice.getPayments() != null) {
+            invoice.getPayments().forEach(accountTotalsService::paymentDeleted);
+        }
+        accountTotalsService.invoiceDeleted(invoice);
+        creditExposureIndex.adjust(invoice.getBillingAccount().getId(),
+            CreditExposureIndex.outstanding(invoice, invoice.getStatus()).negate());
         invoiceRepository.deleteById(id);
+        invoiceSearchIndex.remove(id);
     }
 
     @Transactional(readOnly = true)
     public BigDecimal getTotalAmountByBillingAccountAndStatus(Long billingAccountId, Invoice.Status status) {
-        BigDecimal total = invoiceRepository.sumTotalAmountByBillingAccountIdAndStatus(billingAccountId, status);
-        return total != null ? total : BigDecimal.ZERO;
+        return accountTotalsService.getInvoiceTotal(billingAccountId, status);
     }
 
     @Transactional(readOnly = true)
     public long getInvoiceCountByBillingAccount(Long billingAccountId) {
-        return invoiceRepository.countByBillingAccountId(billingAccountId);
+        return accountTotalsService.getInvoiceCount(billingAccountId);
     }
 
-    private String generateInvoiceNumber() {
-        String prefix = "INV";
-        String timestamp = String.valueOf(System.currentTimeMillis());
-        String randomSuffix = UUID.randomUUID().toString().substring(0, 4).toUpperCase();
-        return prefix + "-" + timestamp + "-" + randomSuffix;
+    private void reserveCredit(Invoice invoice) {
+        Long accountId = invoice.getBillingAccount().getId();
+        if (!creditExposureIndex.tryReserve(accountId, invoice.getTotalAmount())) {
+            throw new IllegalStateException("Invoice total exceeds the available credit of billing account " + accountId);
+        }
+    }
+
+    private Invoice buildInvoice(InvoiceCreateRequest request, BillingAccount billingAccount) {
+        Invoice invoice = new Invoice();
+        invoice.setInvoiceNumber(invoiceNumberAllocator.nextInvoiceNumber());
+        invoice.setBillingAccount(billingAccount);
+        invoice.setAmount(request.getAmount());
+        invoice.setTaxAmount(request.getTaxAmount());
+        invoice.setTotalAmount(request.getAmount().add(request.getTaxAmount()));
+        invoice.setIssueDate(LocalDate.now());
+        invoice.setDueDate(request.getDueDate());
+        invoice.setDescription(request.getDescription());
+
+        // Add invoice items if provided
+        if (request.getItems() != null && !request.getItems().isEmpty()) {
+            List<InvoiceItem> items = request.getItems().stream()
+                .map(itemRequest -> {
+                    InvoiceItem item = new InvoiceItem();
+                    item.setInvoice(invoice);
+                    item.setDescription(itemRequest.getDescription());
+                    item.setQuantity(itemRequest.getQuantity());
+                    item.setUnitPrice(itemRequest.getUnitPrice());
+                    item.setTotalPrice(itemRequest.getQuantity().multiply(itemRequest.getUnitPrice()));
+                    return item;
+                })
+                .collect(Collectors.toList());
+            invoice.setInvoiceItems(items);
+        }
+        return invoice;
     }
 }
\ No newline at end of file
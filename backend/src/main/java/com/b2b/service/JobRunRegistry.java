@@ -0,0 +1,26 @@
+package com.b2b.service;
+
+import com.b2b.dto.response.JobRunResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Keeps the outcome of the most recent run of each background job on this node.
+ */
+@Component
+public class JobRunRegistry {
+
+    private final Map<String, JobRunResponse> lastRuns = new ConcurrentSkipListMap<>();
+
+    public void record(JobRunResponse run) {
+        lastRuns.put(run.getJob(), run);
+    }
+
+    public List<JobRunResponse> getLastRuns() {
+        return new ArrayList<>(lastRuns.values());
+    }
+}
@@ -0,0 +1,120 @@
+package com.b2b.service;
+
+import com.b2b.dto.response.JobRunResponse;
+import com.b2b.entity.Invoice;
+import com.b2b.repository.InvoiceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves SENT invoices to OVERDUE once their due date has passed.
+ * SENT invoices ordered by (due_date, id) on the (status, due_date, id) index
+ * act as the work queue: each run takes the head of the queue in batches and
+ * flips it with a single UPDATE per batch, so only rows that became due since
+ * the last run are read or written. A run stops starting new batches once half
+ * of its scheduler lease is spent and leaves the rest of the queue to the next run.
+ */
+@Component
+public class OverdueInvoiceEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(OverdueInvoiceEngine.class);
+
+    static final String JOB_NAME = "overdue-invoice-engine";
+
+    private final InvoiceRepository invoiceRepository;
+    private final SchedulerLockService schedulerLockService;
+    private final JobRunRegistry jobRunRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final AccountTotalsService accountTotalsService;
+
+    @Value("${app.billing.overdue.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.billing.overdue.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.billing.overdue.lock-seconds:600}")
+    private long lockSeconds;
+
+    @Autowired
+    public OverdueInvoiceEngine(InvoiceRepository invoiceRepository,
+                                SchedulerLockService schedulerLockService,
+                                JobRunRegistry jobRunRegistry,
+                                PlatformTransactionManager transactionManager,
+                                AccountTotalsService accountTotalsService) {
+        this.invoiceRepository = invoiceRepository;
+        this.schedulerLockService = schedulerLockService;
+        this.jobRunRegistry = jobRunRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.accountTotalsService = accountTotalsService;
+    }
+
+    @Scheduled(initialDelayString = "${app.billing.overdue.initial-delay-ms:30000}",
+               fixedDelayString = "${app.billing.overdue.interval-ms:300000}")
+    public void run() {
+        if (!enabled || !schedulerLockService.tryLock(JOB_NAME, Duration.ofSeconds(lockSeconds))) {
+            return;
+        }
+        try {
+            LocalDateTime startedAt = LocalDateTime.now();
+            long start = System.nanoTime();
+            long deadline = start + Duration.ofSeconds(lockSeconds).toNanos() / 2;
+            long flipped = transitionDueInvoices(LocalDate.now(), deadline);
+            long durationMillis = (System.nanoTime() - start) / 1_000_000;
+
+            jobRunRegistry.record(new JobRunResponse(JOB_NAME, schedulerLockService.getNodeId(),
+                startedAt, durationMillis, flipped));
+            if (flipped > 0) {
+                logger.info("Marked {} invoices as overdue ({} ms)", flipped, durationMillis);
+            }
+        } finally {
+            schedulerLockService.unlock(JOB_NAME);
+        }
+    }
+
+    /**
+     * Flips SENT invoices due before {@code today} until none are left or {@code deadlineNanos}
+     * (a {@link System#nanoTime()} value) has passed; returns the number flipped.
+     */
+    public long transitionDueInvoices(LocalDate today, long deadlineNanos) {
+        long flipped = 0;
+        while (System.nanoTime() < deadlineNanos) {
+            Integer updated = transactionTemplate.execute(status -> transitionBatch(today));
+            if (updated == null || updated == 0) {
+                return flipped;
+            }
+            flipped += updated;
+        }
+        return flipped;
+    }
+
+    private int transitionBatch(LocalDate today) {
+        List<Long> ids = invoiceRepository.findIdsByStatusDueBefore(Invoice.Status.SENT, today,
+            PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int updated = invoiceRepository.transitionStatus(ids, Invoice.Status.SENT, Invoice.Status.OVERDUE,
+            LocalDateTime.now());
+
+        // The flipped rows are locked by this transaction, so the sums match what was updated
+        for (Object[] row : invoiceRepository.sumByAccountForIds(ids, Invoice.Status.OVERDUE)) {
+            accountTotalsService.invoicesMoved((Long) row[0], Invoice.Status.SENT, Invoice.Status.OVERDUE,
+                (Long) row[1], (BigDecimal) row[2]);
+        }
+        return updated;
+    }
+}
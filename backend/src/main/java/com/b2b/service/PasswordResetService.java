@@ -4,8 +4,8 @@ import com.b2b.entity.PasswordResetToken;
 import com.b2b.entity.User;
 import com.b2b.repository.PasswordResetTokenRepository;
 import com.b2b.repository.UserRepository;
+import com.b2b.security.PasswordHashPolicy;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,7 +23,7 @@ public class PasswordResetService {
     private PasswordResetTokenRepository tokenRepository;
     
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashPolicy passwordHashPolicy;
     
     @Autowired
     private EmailService emailService;
@@ -31,8 +31,12 @@ public class PasswordResetService {
     private static final int TOKEN_EXPIRY_HOURS = 24;
     private static final int MAX_TOKENS_PER_HOUR = 3;
     
+    /**
+     * @param checkPersistedLimit whether to also count recent tokens in the database; the
+     *                            in-memory limiter asks for this only when it has no history for the email
+     */
     @Transactional
-    public String createPasswordResetToken(String email) {
+    public String createPasswordResetToken(String email, boolean checkPersistedLimit) {
         Optional<User> userOpt = userRepository.findByEmail(email);
         
         if (userOpt.isEmpty()) {
@@ -43,11 +47,14 @@ public class PasswordResetService {
         User user = userOpt.get();
         
         // 檢查是否在過去一小時內已發送了太多重置郵件
-        LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
-        Long recentTokens = tokenRepository.countRecentTokensForUser(user, oneHourAgo);
-        
-        if (recentTokens >= MAX_TOKENS_PER_HOUR) {
-            return "您已請求了太多密碼重置。請稍後再試。";
+        // （主要限制已在控制器以記憶體計數完成，僅在本節點沒有該郵件記錄時才查詢持久化計數，例如節點重啟後）
+        if (checkPersistedLimit) {
+            LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
+            Long recentTokens = tokenRepository.countRecentTokensForUser(user, oneHourAgo);
+            
+            if (recentTokens >= MAX_TOKENS_PER_HOUR) {
+                return "您已請求了太多密碼重置。請稍後再試。";
+            }
         }
         
         // 刪除該用戶的舊令牌
@@ -60,13 +67,8 @@ public class PasswordResetService {
         PasswordResetToken resetToken = new PasswordResetToken(token, user, expiryDate);
         tokenRepository.save(resetToken);
         
-        // 發送密碼重置郵件
-        try {
-            emailService.sendPasswordResetEmail(user.getEmail(), token);
-        } catch (Exception e) {
-            // 記錄錯誤但不影響用戶體驗
-            System.err.println("發送郵件失敗: " + e.getMessage());
-        }
+        // 密碼重置郵件與令牌在同一交易中寫入寄件匣，由背景排程寄出
+        emailService.sendPasswordResetEmail(user.getEmail(), token);
         
         return "如果該電子郵件地址存在於我們的系統中，您將收到密碼重置連結。";
     }
@@ -87,7 +89,7 @@ public class PasswordResetService {
         
         // 更新用戶密碼
         User user = resetToken.getUser();
-        user.setPassword(passwordEncoder.encode(newPassword));
+        user.setPassword(passwordHashPolicy.encode(newPassword, user.getRole()));
         userRepository.save(user);
         
         // 標記令牌為已使用
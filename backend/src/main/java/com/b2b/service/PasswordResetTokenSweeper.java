@@ -0,0 +1,100 @@
+package com.b2b.service;
+
+import com.b2b.dto.response.JobRunResponse;
+import com.b2b.repository.PasswordResetTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Periodically purges expired and used password reset tokens.
+ * Rows are deleted by primary key in small batches, each in its own short
+ * transaction, so the sweep never holds locks on a large range of the table.
+ * A run stops starting new batches once half of its scheduler lease is spent.
+ */
+@Component
+public class PasswordResetTokenSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordResetTokenSweeper.class);
+
+    static final String JOB_NAME = "password-reset-token-sweeper";
+
+    private final PasswordResetTokenRepository tokenRepository;
+    private final SchedulerLockService schedulerLockService;
+    private final JobRunRegistry jobRunRegistry;
+
+    @Value("${app.password-reset.sweeper.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.password-reset.sweeper.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.password-reset.sweeper.pause-ms:100}")
+    private long pauseMs;
+
+    @Value("${app.password-reset.sweeper.lock-seconds:600}")
+    private long lockSeconds;
+
+    @Autowired
+    public PasswordResetTokenSweeper(PasswordResetTokenRepository tokenRepository,
+                                     SchedulerLockService schedulerLockService,
+                                     JobRunRegistry jobRunRegistry) {
+        this.tokenRepository = tokenRepository;
+        this.schedulerLockService = schedulerLockService;
+        this.jobRunRegistry = jobRunRegistry;
+    }
+
+    @Scheduled(initialDelayString = "${app.password-reset.sweeper.initial-delay-ms:60000}",
+               fixedDelayString = "${app.password-reset.sweeper.interval-ms:3600000}")
+    public void sweep() {
+        if (!enabled || !schedulerLockService.tryLock(JOB_NAME, Duration.ofSeconds(lockSeconds))) {
+            return;
+        }
+        try {
+            purge();
+        } finally {
+            schedulerLockService.unlock(JOB_NAME);
+        }
+    }
+
+    private void purge() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        long deadline = start + Duration.ofSeconds(lockSeconds).toNanos() / 2;
+        long purged = 0;
+        int batches = 0;
+
+        while (true) {
+            List<Long> ids = tokenRepository.findPurgeableIds(startedAt, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            tokenRepository.deleteAllByIdInBatch(ids);
+            purged += ids.size();
+            batches++;
+            // Leave the rest for the next tick rather than outliving the lease
+            if (ids.size() < batchSize || System.nanoTime() >= deadline) {
+                break;
+            }
+            try {
+                Thread.sleep(pauseMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        long durationMillis = (System.nanoTime() - start) / 1_000_000;
+        jobRunRegistry.record(new JobRunResponse(JOB_NAME, schedulerLockService.getNodeId(),
+            startedAt, durationMillis, purged));
+        logger.info("Purged {} password reset tokens in {} batches ({} ms)", purged, batches, durationMillis);
+    }
+}
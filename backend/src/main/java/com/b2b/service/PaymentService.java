@@ -1,45 +1,98 @@
 package com.b2b.service;
 
 import com.b2b.dto.request.PaymentCreateRequest;
+import com.b2b.dto.response.BatchGetResponse;
+import com.b2b.dto.response.CursorPage;
 import com.b2b.dto.response.PaymentResponse;
 import com.b2b.entity.Invoice;
 import com.b2b.entity.Payment;
+import com.b2b.exception.ConcurrentUpdateException;
 import com.b2b.exception.ResourceNotFoundException;
 import com.b2b.repository.InvoiceRepository;
 import com.b2b.repository.PaymentRepository;
+import com.b2b.repository.ProjectionQueryExecutor;
+import com.b2b.repository.SeekQueryExecutor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 
 @Service
 @Transactional
 public class PaymentService {
 
+    /** Columns with a (column, id) index on payments. */
+    private static final Set<String> SEEK_COLUMNS = Set.of("id", "paymentDate", "createdAt");
+
+    /** Fields a sparse fieldset may select, mapped to their attribute paths. */
+    private static final Map<String, String> FIELDS = Map.ofEntries(
+        Map.entry("id", "id"), Map.entry("invoiceId", "invoice.id"), Map.entry("amount", "amount"),
+        Map.entry("paymentMethod", "paymentMethod"), Map.entry("paymentReference", "paymentReference"),
+        Map.entry("paymentDate", "paymentDate"), Map.entry("status", "status"), Map.entry("notes", "notes"),
+        Map.entry("createdAt", "createdAt"), Map.entry("updatedAt", "updatedAt"));
+
     private final PaymentRepository paymentRepository;
     private final InvoiceRepository invoiceRepository;
+    private final SeekQueryExecutor seekQueryExecutor;
+    private final AccountTotalsService accountTotalsService;
+    private final CreditExposureIndex creditExposureIndex;
+    private final ProjectionQueryExecutor projectionQueryExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final BillingResponseMapper billingResponseMapper;
+
+    @Value("${app.billing.payments.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.billing.payments.retry-backoff-ms:20}")
+    private long retryBackoffMillis;
 
     @Autowired
-    public PaymentService(PaymentRepository paymentRepository, InvoiceRepository invoiceRepository) {
+    public PaymentService(PaymentRepository paymentRepository, InvoiceRepository invoiceRepository,
+                          SeekQueryExecutor seekQueryExecutor, AccountTotalsService accountTotalsService,
+                          CreditExposureIndex creditExposureIndex, PlatformTransactionManager transactionManager,
+                          ProjectionQueryExecutor projectionQueryExecutor, BillingResponseMapper billingResponseMapper) {
         this.paymentRepository = paymentRepository;
         this.invoiceRepository = invoiceRepository;
+        this.seekQueryExecutor = seekQueryExecutor;
+        this.accountTotalsService = accountTotalsService;
+        this.creditExposureIndex = creditExposureIndex;
+        this.projectionQueryExecutor = projectionQueryExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.billingResponseMapper = billingResponseMapper;
     }
 
+    /**
+     * Every write that checks or moves an invoice's balance bumps the invoice version, so two
+     * payments racing on the same invoice cannot both pass the balance check: the loser's commit
+     * fails and it is retried in a fresh transaction against the new balance. Payments on
+     * different invoices touch different rows and never wait on each other.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PaymentResponse createPayment(PaymentCreateRequest request) {
-        Invoice invoice = invoiceRepository.findById(request.getInvoiceId())
+        return retryOnConflict(() -> doCreatePayment(request));
+    }
+
+    private PaymentResponse doCreatePayment(PaymentCreateRequest request) {
+        Invoice invoice = invoiceRepository.findByIdForPayment(request.getInvoiceId())
             .orElseThrow(() -> new ResourceNotFoundException("Invoice not found with id: " + request.getInvoiceId()));
 
         // Validate payment amount doesn't exceed remaining balance
-        BigDecimal totalPaid = getCompletedPaymentsByInvoice(request.getInvoiceId());
-        BigDecimal remainingBalance = invoice.getTotalAmount().subtract(totalPaid);
-        
-        if (request.getAmount().compareTo(remainingBalance) > 0) {
+        if (request.getAmount().compareTo(invoice.getRemainingAmount()) > 0) {
             throw new IllegalArgumentException("Payment amount exceeds remaining invoice balance");
         }
 
@@ -52,24 +105,31 @@ public class PaymentService {
         payment.setNotes(request.getNotes());
 
         Payment savedPayment = paymentRepository.save(payment);
+        accountTotalsService.paymentCreated(savedPayment);
         
         // Update invoice status if fully paid
-        updateInvoiceStatusIfFullyPaid(invoice.getId());
+        updateInvoiceStatusIfFullyPaid(invoice);
         
-        return new PaymentResponse(savedPayment);
+        return billingResponseMapper.toPaymentResponse(savedPayment);
     }
 
     @Transactional(readOnly = true)
     public PaymentResponse getPaymentById(Long id) {
         Payment payment = paymentRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Payment not found with id: " + id));
-        return new PaymentResponse(payment);
+        return billingResponseMapper.toPaymentResponse(payment);
+    }
+
+    @Transactional(readOnly = true)
+    public BatchGetResponse<PaymentResponse> getPaymentsByIds(List<Long> ids) {
+        List<Long> distinct = BatchGetResponse.distinctIds(ids);
+        List<Payment> found = paymentRepository.findByIdIn(distinct);
+        return BatchGetResponse.of(distinct, found, Payment::getId, billingResponseMapper.paymentMapper(found));
     }
 
     @Transactional(readOnly = true)
     public Page<PaymentResponse> getAllPayments(Pageable pageable) {
-        return paymentRepository.findAll(pageable)
-            .map(PaymentResponse::new);
+        return billingResponseMapper.toPaymentResponses(paymentRepository.findAll(pageable));
     }
 
     @Transactional(readOnly = true)
@@ -77,10 +137,7 @@ public class PaymentService {
         Invoice invoice = invoiceRepository.findById(invoiceId)
             .orElseThrow(() -> new ResourceNotFoundException("Invoice not found with id: " + invoiceId));
         
-        return paymentRepository.findByInvoice(invoice)
-            .stream()
-            .map(PaymentResponse::new)
-            .collect(Collectors.toList());
+        return billingResponseMapper.toPaymentResponses(paymentRepository.findByInvoice(invoice));
     }
 
     @Transactional(readOnly = true)
@@ -88,85 +145,110 @@ public class PaymentService {
         Invoice invoice = invoiceRepository.findById(invoiceId)
             .orElseThrow(() -> new ResourceNotFoundException("Invoice not found with id: " + invoiceId));
         
-        return paymentRepository.findByInvoice(invoice, pageable)
-            .map(PaymentResponse::new);
+        return billingResponseMapper.toPaymentResponses(paymentRepository.findByInvoice(invoice, pageable));
     }
 
     @Transactional(readOnly = true)
     public List<PaymentResponse> getPaymentsByStore(Long storeId) {
-        return paymentRepository.findByStoreId(storeId)
-            .stream()
-            .map(PaymentResponse::new)
-            .collect(Collectors.toList());
+        return billingResponseMapper.toPaymentResponses(paymentRepository.findByStoreId(storeId));
     }
 
     @Transactional(readOnly = true)
     public Page<PaymentResponse> getPaymentsByStore(Long storeId, Pageable pageable) {
-        return paymentRepository.findByStoreId(storeId, pageable)
-            .map(PaymentResponse::new);
+        return billingResponseMapper.toPaymentResponses(paymentRepository.findByStoreId(storeId, pageable));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> selectPayments(String fields, Payment.Status status, Pageable pageable) {
+        return projectionQueryExecutor.select(Payment.class, FIELDS, ProjectionQueryExecutor.parseFields(fields),
+            Collections.singletonMap("status", status), pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<PaymentResponse> seekPayments(String sortBy, boolean descending, Payment.Status status,
+                                                    String cursor, int size, boolean includeTotal) {
+        CursorPage<Payment> page = seekQueryExecutor.seek(Payment.class, SEEK_COLUMNS, sortBy, descending,
+                Collections.singletonMap("status", status), cursor, size, includeTotal, null);
+        return billingResponseMapper.toPaymentResponses(page);
     }
 
     @Transactional(readOnly = true)
     public Page<PaymentResponse> getPaymentsByStatus(Payment.Status status, Pageable pageable) {
-        return paymentRepository.findByStatus(status, pageable)
-            .map(PaymentResponse::new);
+        return billingResponseMapper.toPaymentResponses(paymentRepository.findByStatus(status, pageable));
     }
 
     @Transactional(readOnly = true)
     public List<PaymentResponse> getPaymentsByPaymentMethod(Payment.PaymentMethod paymentMethod) {
-        return paymentRepository.findByPaymentMethod(paymentMethod)
-            .stream()
-            .map(PaymentResponse::new)
-            .collect(Collectors.toList());
+        return billingResponseMapper.toPaymentResponses(paymentRepository.findByPaymentMethod(paymentMethod));
     }
 
     @Transactional(readOnly = true)
     public List<PaymentResponse> getPaymentsBetweenDates(LocalDate startDate, LocalDate endDate) {
-        return paymentRepository.findPaymentsBetweenDates(startDate, endDate)
-            .stream()
-            .map(PaymentResponse::new)
-            .collect(Collectors.toList());
+        return billingResponseMapper.toPaymentResponses(paymentRepository.findPaymentsBetweenDates(startDate, endDate));
     }
 
     @Transactional(readOnly = true)
     public List<PaymentResponse> getPaymentsByStatusAndDateRange(Payment.Status status, 
                                                                 LocalDate startDate, 
                                                                 LocalDate endDate) {
-        return paymentRepository.findByStatusAndPaymentDateBetween(status, startDate, endDate)
-            .stream()
-            .map(PaymentResponse::new)
-            .collect(Collectors.toList());
+        return billingResponseMapper.toPaymentResponses(
+            paymentRepository.findByStatusAndPaymentDateBetween(status, startDate, endDate));
     }
 
     @Transactional(readOnly = true)
     public Page<PaymentResponse> searchPayments(String search, Pageable pageable) {
-        return paymentRepository.findBySearchTerm(search, pageable)
-            .map(PaymentResponse::new);
+        return billingResponseMapper.toPaymentResponses(paymentRepository.findBySearchTerm(search, pageable));
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PaymentResponse updatePaymentStatus(Long id, Payment.Status status) {
+        return retryOnConflict(() -> doUpdatePaymentStatus(id, status));
+    }
+
+    private PaymentResponse doUpdatePaymentStatus(Long id, Payment.Status status) {
         Payment payment = paymentRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Payment not found with id: " + id));
+        Invoice invoice = invoiceRepository.findByIdForPayment(payment.getInvoice().getId())
+            .orElseThrow(() -> new ResourceNotFoundException("Invoice not found with id: " + payment.getInvoice().getId()));
         
+        BigDecimal exposureBefore = CreditExposureIndex.outstanding(invoice, invoice.getStatus());
+        Payment.Status previousStatus = payment.getStatus();
+        if (previousStatus != Payment.Status.COMPLETED && status == Payment.Status.COMPLETED
+                && payment.getAmount().compareTo(invoice.getRemainingAmount()) > 0) {
+            throw new IllegalStateException("Completing this payment would overpay the invoice");
+        }
         payment.setStatus(status);
         Payment updatedPayment = paymentRepository.save(payment);
+        accountTotalsService.paymentStatusChanged(updatedPayment, previousStatus);
+        
+        // Keep the invoice's paid amount in step with payments entering or leaving COMPLETED
+        if (previousStatus != Payment.Status.COMPLETED && status == Payment.Status.COMPLETED) {
+            invoice.setPaidAmount(invoice.getPaidAmount().add(payment.getAmount()));
+        } else if (previousStatus == Payment.Status.COMPLETED && status != Payment.Status.COMPLETED) {
+            invoice.setPaidAmount(invoice.getPaidAmount().subtract(payment.getAmount()));
+        }
         
         // Update invoice status based on payment completion
         if (status == Payment.Status.COMPLETED) {
-            updateInvoiceStatusIfFullyPaid(payment.getInvoice().getId());
+            updateInvoiceStatusIfFullyPaid(invoice);
         }
+        creditExposureIndex.adjust(invoice.getBillingAccount().getId(),
+            CreditExposureIndex.outstanding(invoice, invoice.getStatus()).subtract(exposureBefore));
         
-        return new PaymentResponse(updatedPayment);
+        return billingResponseMapper.toPaymentResponse(updatedPayment);
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PaymentResponse completePayment(Long id) {
         return updatePaymentStatus(id, Payment.Status.COMPLETED);
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PaymentResponse failPayment(Long id) {
         return updatePaymentStatus(id, Payment.Status.FAILED);
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PaymentResponse refundPayment(Long id) {
         return updatePaymentStatus(id, Payment.Status.REFUNDED);
     }
@@ -179,19 +261,20 @@ public class PaymentService {
             throw new IllegalStateException("Cannot delete completed payment");
         }
         
+        accountTotalsService.paymentDeleted(payment);
         paymentRepository.deleteById(id);
     }
 
     @Transactional(readOnly = true)
     public BigDecimal getCompletedPaymentsByInvoice(Long invoiceId) {
-        BigDecimal total = paymentRepository.sumCompletedPaymentsByInvoiceId(invoiceId);
-        return total != null ? total : BigDecimal.ZERO;
+        Invoice invoice = invoiceRepository.findById(invoiceId)
+            .orElseThrow(() -> new ResourceNotFoundException("Invoice not found with id: " + invoiceId));
+        return invoice.getPaidAmount();
     }
 
     @Transactional(readOnly = true)
     public BigDecimal getCompletedPaymentsByBillingAccount(Long billingAccountId) {
-        BigDecimal total = paymentRepository.sumCompletedPaymentsByBillingAccountId(billingAccountId);
-        return total != null ? total : BigDecimal.ZERO;
+        return accountTotalsService.getPaymentTotal(billingAccountId, Payment.Status.COMPLETED);
     }
 
     @Transactional(readOnly = true)
@@ -199,17 +282,33 @@ public class PaymentService {
         return paymentRepository.countByInvoiceId(invoiceId);
     }
 
-    private void updateInvoiceStatusIfFullyPaid(Long invoiceId) {
-        Invoice invoice = invoiceRepository.findById(invoiceId)
-            .orElseThrow(() -> new ResourceNotFoundException("Invoice not found with id: " + invoiceId));
-        
-        BigDecimal totalPaid = getCompletedPaymentsByInvoice(invoiceId);
-        
-        if (totalPaid.compareTo(invoice.getTotalAmount()) >= 0 && 
+    private void updateInvoiceStatusIfFullyPaid(Invoice invoice) {
+        if (invoice.getPaidAmount().compareTo(invoice.getTotalAmount()) >= 0 && 
             invoice.getStatus() != Invoice.Status.PAID) {
+            Invoice.Status previousStatus = invoice.getStatus();
             invoice.setStatus(Invoice.Status.PAID);
             invoice.setPaidDate(LocalDate.now());
             invoiceRepository.save(invoice);
+            accountTotalsService.invoiceStatusChanged(invoice, previousStatus);
+        }
+    }
+
+    private <T> T retryOnConflict(Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (ConcurrencyFailureException ex) {
+                if (attempt >= maxAttempts) {
+                    throw new ConcurrentUpdateException("Invoice is being updated concurrently, please retry", ex);
+                }
+                try {
+                    // Jittered so that writers that collided do not collide again
+                    Thread.sleep(ThreadLocalRandom.current().nextLong(retryBackoffMillis * attempt + 1));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new ConcurrentUpdateException("Interrupted while retrying payment update", ie);
+                }
+            }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,81 @@
+package com.b2b.service;
+
+import com.b2b.repository.SchedulerLockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Lease-based lock on a row of {@code scheduler_locks}, used so that a
+ * scheduled job runs on only one node at a time. Acquiring is a single
+ * conditional UPDATE, so the row lock is held only for that statement.
+ */
+@Service
+public class SchedulerLockService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SchedulerLockService.class);
+
+    private final SchedulerLockRepository schedulerLockRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String nodeId;
+
+    @Autowired
+    public SchedulerLockService(SchedulerLockRepository schedulerLockRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.node-id:}") String nodeId) {
+        this.schedulerLockRepository = schedulerLockRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.nodeId = StringUtils.hasText(nodeId) ? nodeId : ManagementFactory.getRuntimeMXBean().getName();
+    }
+
+    public boolean tryLock(String name, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(lease);
+        try {
+            Integer updated = transactionTemplate.execute(status ->
+                schedulerLockRepository.tryAcquire(name, nodeId, now, until));
+            if (updated != null && updated > 0) {
+                return true;
+            }
+            if (schedulerLockRepository.existsById(name)) {
+                return false;
+            }
+            // First run of this job anywhere: create an expired row idempotently, then compete
+            // for it through the same conditional UPDATE, so two nodes starting together
+            // cannot both believe they created and own it
+            updated = transactionTemplate.execute(status -> {
+                schedulerLockRepository.insertIfAbsent(name, now.minus(lease));
+                return schedulerLockRepository.tryAcquire(name, nodeId, now, until);
+            });
+            return updated != null && updated > 0;
+        } catch (DataAccessException e) {
+            logger.debug("Could not acquire scheduler lock {}: {}", name, e.getMessage());
+            return false;
+        }
+    }
+
+    public void unlock(String name) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                schedulerLockRepository.release(name, nodeId, LocalDateTime.now()));
+        } catch (DataAccessException e) {
+            logger.warn("Could not release scheduler lock {}, it will expire with its lease", name, e);
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+}
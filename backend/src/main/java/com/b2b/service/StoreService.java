@@ -1,11 +1,14 @@
 package com.b2b.service;
 
+import com.b2b.cache.StoreDirectoryCache;
 import com.b2b.dto.request.StoreCreateRequest;
 import com.b2b.dto.request.StoreUpdateRequest;
+import com.b2b.dto.response.BatchGetResponse;
 import com.b2b.dto.response.StoreResponse;
 import com.b2b.entity.Store;
 import com.b2b.entity.User;
 import com.b2b.exception.ResourceNotFoundException;
+import com.b2b.repository.ProjectionQueryExecutor;
 import com.b2b.repository.StoreRepository;
 import com.b2b.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,7 +17,10 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,11 +29,25 @@ public class StoreService {
 
     private final StoreRepository storeRepository;
     private final UserRepository userRepository;
+    private final ProjectionQueryExecutor projectionQueryExecutor;
+    private final StoreDirectoryCache storeDirectoryCache;
+
+    /** Fields a sparse fieldset may select, mapped to their attribute paths. */
+    private static final Map<String, String> FIELDS = Map.ofEntries(
+        Map.entry("id", "id"), Map.entry("name", "name"), Map.entry("description", "description"),
+        Map.entry("address", "address"), Map.entry("city", "city"), Map.entry("state", "state"),
+        Map.entry("zipCode", "zipCode"), Map.entry("country", "country"), Map.entry("phone", "phone"),
+        Map.entry("email", "email"), Map.entry("managerId", "manager.id"), Map.entry("status", "status"),
+        Map.entry("createdAt", "createdAt"), Map.entry("updatedAt", "updatedAt"));
 
     @Autowired
-    public StoreService(StoreRepository storeRepository, UserRepository userRepository) {
+    public StoreService(StoreRepository storeRepository, UserRepository userRepository,
+                        ProjectionQueryExecutor projectionQueryExecutor,
+                        StoreDirectoryCache storeDirectoryCache) {
         this.storeRepository = storeRepository;
         this.userRepository = userRepository;
+        this.projectionQueryExecutor = projectionQueryExecutor;
+        this.storeDirectoryCache = storeDirectoryCache;
     }
 
     public StoreResponse createStore(StoreCreateRequest request) {
@@ -54,9 +74,17 @@ public class StoreService {
 
     @Transactional(readOnly = true)
     public StoreResponse getStoreById(Long id) {
-        Store store = storeRepository.findById(id)
-            .orElseThrow(() -> new ResourceNotFoundException("Store not found with id: " + id));
-        return new StoreResponse(store);
+        StoreResponse store = storeDirectoryCache.get(id);
+        if (store == null) {
+            throw new ResourceNotFoundException("Store not found with id: " + id);
+        }
+        return store;
+    }
+
+    @Transactional(readOnly = true)
+    public BatchGetResponse<StoreResponse> getStoresByIds(List<Long> ids) {
+        List<Long> distinct = BatchGetResponse.distinctIds(ids);
+        return BatchGetResponse.of(distinct, storeRepository.findByIdIn(distinct), Store::getId, StoreResponse::new);
     }
 
     @Transactional(readOnly = true)
@@ -65,6 +93,12 @@ public class StoreService {
             .map(StoreResponse::new);
     }
 
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> selectStores(String fields, Store.Status status, Pageable pageable) {
+        return projectionQueryExecutor.select(Store.class, FIELDS, ProjectionQueryExecutor.parseFields(fields),
+            Collections.singletonMap("status", status), pageable);
+    }
+
     @Transactional(readOnly = true)
     public Page<StoreResponse> getStoresByStatus(Store.Status status, Pageable pageable) {
         return storeRepository.findByStatus(status, pageable)
@@ -154,6 +188,7 @@ public class StoreService {
         }
 
         Store updatedStore = storeRepository.save(store);
+        storeDirectoryCache.evict(id);
         return new StoreResponse(updatedStore);
     }
 
@@ -162,6 +197,7 @@ public class StoreService {
             throw new ResourceNotFoundException("Store not found with id: " + id);
         }
         storeRepository.deleteById(id);
+        storeDirectoryCache.evict(id);
     }
 
     public StoreResponse activateStore(Long id) {
@@ -170,6 +206,7 @@ public class StoreService {
         
         store.setStatus(Store.Status.ACTIVE);
         Store updatedStore = storeRepository.save(store);
+        storeDirectoryCache.evict(id);
         return new StoreResponse(updatedStore);
     }
 
@@ -179,6 +216,7 @@ public class StoreService {
         
         store.setStatus(Store.Status.INACTIVE);
         Store updatedStore = storeRepository.save(store);
+        storeDirectoryCache.evict(id);
         return new StoreResponse(updatedStore);
     }
 
@@ -2,32 +2,55 @@ package com.b2b.service;
 
 import com.b2b.dto.request.UserRegistrationRequest;
 import com.b2b.dto.request.UserUpdateRequest;
+import com.b2b.dto.response.BatchGetResponse;
 import com.b2b.dto.response.UserResponse;
 import com.b2b.entity.User;
 import com.b2b.exception.ResourceAlreadyExistsException;
 import com.b2b.exception.ResourceNotFoundException;
+import com.b2b.repository.ProjectionQueryExecutor;
 import com.b2b.repository.UserRepository;
+import com.b2b.security.PasswordHashPolicy;
+import com.b2b.security.PrincipalCache;
+import com.b2b.security.TokenRevocationList;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
 @Service
 @Transactional
 public class UserService implements UserDetailsService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashPolicy passwordHashPolicy;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationList tokenRevocationList;
+    private final ProjectionQueryExecutor projectionQueryExecutor;
+
+    /** Fields a sparse fieldset may select, mapped to their attribute paths; never the password. */
+    private static final Map<String, String> FIELDS = Map.ofEntries(
+        Map.entry("id", "id"), Map.entry("username", "username"), Map.entry("email", "email"),
+        Map.entry("firstName", "firstName"), Map.entry("lastName", "lastName"), Map.entry("phone", "phone"),
+        Map.entry("role", "role"), Map.entry("isActive", "isActive"), Map.entry("createdAt", "createdAt"),
+        Map.entry("updatedAt", "updatedAt"));
 
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordHashPolicy passwordHashPolicy,
+                       PrincipalCache principalCache, TokenRevocationList tokenRevocationList,
+                       ProjectionQueryExecutor projectionQueryExecutor) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashPolicy = passwordHashPolicy;
+        this.principalCache = principalCache;
+        this.tokenRevocationList = tokenRevocationList;
+        this.projectionQueryExecutor = projectionQueryExecutor;
     }
 
     @Override
@@ -50,7 +73,7 @@ public class UserService implements UserDetailsService {
         User user = new User();
         user.setUsername(request.getUsername());
         user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashPolicy.encode(request.getPassword(), request.getRole()));
         user.setFirstName(request.getFirstName());
         user.setLastName(request.getLastName());
         user.setPhone(request.getPhone());
@@ -67,6 +90,12 @@ public class UserService implements UserDetailsService {
         return new UserResponse(user);
     }
 
+    @Transactional(readOnly = true)
+    public BatchGetResponse<UserResponse> getUsersByIds(List<Long> ids) {
+        List<Long> distinct = BatchGetResponse.distinctIds(ids);
+        return BatchGetResponse.of(distinct, userRepository.findAllById(distinct), User::getId, UserResponse::new);
+    }
+
     @Transactional(readOnly = true)
     public UserResponse getUserByUsername(String username) {
         User user = userRepository.findByUsername(username)
@@ -80,6 +109,12 @@ public class UserService implements UserDetailsService {
             .map(UserResponse::new);
     }
 
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> selectUsers(String fields, boolean activeOnly, Pageable pageable) {
+        return projectionQueryExecutor.select(User.class, FIELDS, ProjectionQueryExecutor.parseFields(fields),
+            Collections.singletonMap("isActive", activeOnly ? Boolean.TRUE : null), pageable);
+    }
+
     @Transactional(readOnly = true)
     public Page<UserResponse> getActiveUsers(Pageable pageable) {
         return userRepository.findByIsActiveTrue(pageable)
@@ -127,24 +162,38 @@ public class UserService implements UserDetailsService {
             user.setPhone(request.getPhone());
         }
 
-        if (request.getRole() != null) {
+        if (request.getRole() != null && request.getRole() != user.getRole()) {
             user.setRole(request.getRole());
+            tokenRevocationList.revoke(user.getId());
         }
 
-        if (request.getIsActive() != null) {
+        if (request.getIsActive() != null && !request.getIsActive().equals(user.getIsActive())) {
             user.setIsActive(request.getIsActive());
+            tokenRevocationList.revoke(user.getId());
         }
 
         User updatedUser = userRepository.save(user);
+        principalCache.evict(updatedUser.getUsername());
         return new UserResponse(updatedUser);
     }
 
+    public void updatePasswordHash(Long id, String encodedPassword) {
+        User user = userRepository.findById(id)
+            .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+
+        user.setPassword(encodedPassword);
+        userRepository.save(user);
+        principalCache.evict(user.getUsername());
+    }
+
     public void deactivateUser(Long id) {
         User user = userRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
         
         user.setIsActive(false);
         userRepository.save(user);
+        principalCache.evict(user.getUsername());
+        tokenRevocationList.revoke(user.getId());
     }
 
     public void activateUser(Long id) {
@@ -153,13 +202,15 @@ public class UserService implements UserDetailsService {
         
         user.setIsActive(true);
         userRepository.save(user);
+        principalCache.evict(user.getUsername());
     }
 
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new ResourceNotFoundException("User not found with id: " + id);
-        }
-        userRepository.deleteById(id);
+        User user = userRepository.findById(id)
+            .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+        userRepository.delete(user);
+        principalCache.evict(user.getUsername());
+        tokenRevocationList.revoke(user.getId());
     }
 
     @Transactional(readOnly = true)
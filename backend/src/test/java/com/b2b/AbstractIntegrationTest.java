@@ -0,0 +1,141 @@
+package com.b2b;
+
+import com.b2b.cache.SecondLevelCacheRegions;
+import com.b2b.cache.StoreDirectoryCache;
+import com.b2b.dto.request.BillingAccountCreateRequest;
+import com.b2b.dto.request.InvoiceCreateRequest;
+import com.b2b.dto.request.StoreCreateRequest;
+import com.b2b.dto.request.UserRegistrationRequest;
+import com.b2b.dto.response.BillingAccountResponse;
+import com.b2b.dto.response.InvoiceResponse;
+import com.b2b.dto.response.StoreResponse;
+import com.b2b.dto.response.UserResponse;
+import com.b2b.entity.BillingAccount;
+import com.b2b.entity.User;
+import com.b2b.service.BillingAccountService;
+import com.b2b.service.InvoiceService;
+import com.b2b.service.StoreService;
+import com.b2b.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Boots the application against a throwaway MySQL, the database the native
+ * queries are written for. The container is started once per JVM and shared
+ * by every test class, as is the Spring context. Tests create their own
+ * rows with unique names rather than relying on a clean database.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public abstract class AbstractIntegrationTest {
+
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    private static final AtomicLong SEQUENCE = new AtomicLong(System.currentTimeMillis() % 1_000_000);
+
+    static {
+        MYSQL.start();
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+    }
+
+    @Autowired
+    protected EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    protected UserService userService;
+
+    @Autowired
+    protected StoreService storeService;
+
+    @Autowired
+    protected BillingAccountService billingAccountService;
+
+    @Autowired
+    protected InvoiceService invoiceService;
+
+    @Autowired
+    protected StoreDirectoryCache storeDirectoryCache;
+
+    @Autowired
+    protected SecondLevelCacheRegions secondLevelCacheRegions;
+
+    protected static String unique(String prefix) {
+        return prefix + SEQUENCE.incrementAndGet();
+    }
+
+    protected Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /** Empties every cache in front of the database, so counts reflect a cold read. */
+    protected void clearCaches() {
+        storeDirectoryCache.evictAll();
+        secondLevelCacheRegions.evictAll();
+    }
+
+    protected UserResponse newUser(User.Role role) {
+        String name = unique("user");
+        UserRegistrationRequest request = new UserRegistrationRequest();
+        request.setUsername(name);
+        request.setEmail(name + "@example.com");
+        request.setPassword("password-" + name);
+        request.setFirstName("Test");
+        request.setLastName(name);
+        request.setRole(role);
+        return userService.createUser(request);
+    }
+
+    protected StoreResponse newStore(Long managerId) {
+        StoreCreateRequest request = new StoreCreateRequest();
+        request.setName(unique("store"));
+        request.setManagerId(managerId);
+        return storeService.createStore(request);
+    }
+
+    protected BillingAccountResponse newAccount(Long storeId, BillingAccount.AccountType type, BigDecimal creditLimit) {
+        BillingAccountCreateRequest request = new BillingAccountCreateRequest();
+        request.setStoreId(storeId);
+        request.setAccountName(unique("account"));
+        request.setAccountType(type);
+        request.setCreditLimit(creditLimit);
+        return billingAccountService.createBillingAccount(request);
+    }
+
+    protected InvoiceResponse newInvoice(Long accountId, BigDecimal amount, int items) {
+        InvoiceCreateRequest request = new InvoiceCreateRequest();
+        request.setBillingAccountId(accountId);
+        request.setAmount(amount);
+        request.setDueDate(LocalDate.now().plusDays(30));
+        request.setDescription(unique("invoice"));
+        List<InvoiceCreateRequest.InvoiceItemRequest> itemRequests = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            InvoiceCreateRequest.InvoiceItemRequest item = new InvoiceCreateRequest.InvoiceItemRequest();
+            item.setDescription("item " + i);
+            item.setUnitPrice(BigDecimal.ONE);
+            itemRequests.add(item);
+        }
+        request.setItems(itemRequests);
+        return invoiceService.createInvoice(request);
+    }
+}
@@ -0,0 +1,84 @@
+package com.b2b.cache;
+
+import com.b2b.AbstractIntegrationTest;
+import com.b2b.entity.BillingAccount;
+import com.b2b.entity.User;
+import com.b2b.repository.BillingAccountRepository;
+import com.b2b.repository.StoreRepository;
+import com.b2b.repository.UserRepository;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Each repository call below runs in its own persistence context, so repeats can only be served by L2. */
+class SecondLevelCacheTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private BillingAccountRepository billingAccountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Long managerId;
+    private Long storeId;
+    private Long accountId;
+
+    @BeforeEach
+    void createAccount() {
+        managerId = newUser(User.Role.STORE_MANAGER).getId();
+        storeId = newStore(managerId).getId();
+        accountId = newAccount(storeId, BillingAccount.AccountType.CREDIT, new BigDecimal("1000.00")).getId();
+    }
+
+    private long statementsFor(Consumer<Long> lookup, Long id) {
+        Statistics statistics = statistics();
+        statistics.clear();
+        lookup.accept(id);
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    void warmStoreAndAccountLookupsSkipTheDatabase() {
+        clearCaches();
+        Consumer<Long> findStore = id -> assertThat(storeRepository.findById(id)).isPresent();
+        Consumer<Long> findAccount = id -> assertThat(billingAccountRepository.findById(id)).isPresent();
+
+        assertThat(statementsFor(findStore, storeId)).isEqualTo(1);
+        assertThat(statementsFor(findStore, storeId)).isZero();
+        assertThat(statementsFor(findAccount, accountId)).isEqualTo(1);
+        assertThat(statementsFor(findAccount, accountId)).isZero();
+        assertThat(statistics().getSecondLevelCacheHitCount()).isPositive();
+    }
+
+    @Test
+    void storeAccountListsComeFromTheQueryCacheUntilAnAccountIsWritten() {
+        clearCaches();
+        Consumer<Long> findAccounts = id -> assertThat(billingAccountRepository.findByStoreId(id)).hasSize(1);
+
+        assertThat(statementsFor(findAccounts, storeId)).isEqualTo(1);
+        assertThat(statementsFor(findAccounts, storeId)).isZero();
+        assertThat(statistics().getQueryCacheHitCount()).isPositive();
+
+        newAccount(storeId, BillingAccount.AccountType.PREPAID, BigDecimal.ZERO);
+        Consumer<Long> findBoth = id -> assertThat(billingAccountRepository.findByStoreId(id)).hasSize(2);
+        assertThat(statementsFor(findBoth, storeId)).isEqualTo(1);
+    }
+
+    @Test
+    void usersAreAlwaysReadFromTheDatabase() {
+        clearCaches();
+        Consumer<Long> findUser = id -> assertThat(userRepository.findById(id)).isPresent();
+
+        assertThat(statementsFor(findUser, managerId)).isEqualTo(1);
+        assertThat(statementsFor(findUser, managerId)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,70 @@
+package com.b2b.controller;
+
+import com.b2b.AbstractIntegrationTest;
+import com.b2b.dto.response.BillingAccountResponse;
+import com.b2b.dto.response.StoreResponse;
+import com.b2b.entity.BillingAccount;
+import com.b2b.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WithMockUser(roles = "ADMIN")
+class CompactViewTest extends AbstractIntegrationTest {
+
+    private static final int INVOICES = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private StoreResponse store;
+    private BillingAccountResponse account;
+
+    @BeforeEach
+    void createInvoices() {
+        store = newStore(newUser(User.Role.STORE_MANAGER).getId());
+        account = newAccount(store.getId(), BillingAccount.AccountType.DEBIT, BigDecimal.ZERO);
+        for (int i = 0; i < INVOICES; i++) {
+            newInvoice(account.getId(), new BigDecimal("10.00"), 1);
+        }
+    }
+
+    @Test
+    void sharedAccountAndStoreAreIncludedOnce() throws Exception {
+        String accountKey = "$.included.billingAccounts['" + account.getId() + "']";
+        String storeKey = "$.included.stores['" + store.getId() + "']";
+
+        mockMvc.perform(get("/api/billing/invoices/store/" + store.getId())
+                .param("size", String.valueOf(INVOICES))
+                .param("view", "compact"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.content", hasSize(INVOICES)))
+            .andExpect(jsonPath("$.data.content[*].billingAccountId", everyItem(is(account.getId().intValue()))))
+            .andExpect(jsonPath("$.data.content[0].billingAccount").doesNotExist())
+            .andExpect(jsonPath("$.included.billingAccounts.length()", is(1)))
+            .andExpect(jsonPath(accountKey + ".storeId", is(store.getId().intValue())))
+            .andExpect(jsonPath(accountKey + ".store").doesNotExist())
+            .andExpect(jsonPath(storeKey + ".managerId", is(store.getManager().getId().intValue())))
+            .andExpect(jsonPath("$.included.users.length()", is(1)));
+    }
+
+    @Test
+    void fullViewStillNestsObjects() throws Exception {
+        mockMvc.perform(get("/api/billing/invoices/store/" + store.getId()).param("size", "1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.data.content[0].billingAccount.store.manager.id",
+                is(store.getManager().getId().intValue())))
+            .andExpect(jsonPath("$.included").doesNotExist());
+    }
+}
@@ -0,0 +1,21 @@
+package com.b2b.controller;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExportEncodingTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"gzip", "GZIP", "deflate, gzip;q=0.5", "br, *", "gzip ; q=1.0", "*;q=0.1, br"})
+    void gzipIsUsedWhenAccepted(String acceptEncoding) {
+        assertThat(BillingController.acceptsGzip(acceptEncoding)).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "identity", "x-gzip", "gzip;q=0", "gzip;q=0.000", "*, gzip;q=0", "*;q=0", "gzip;q=abc"})
+    void gzipIsNotUsedWhenRefusedOrAbsent(String acceptEncoding) {
+        assertThat(BillingController.acceptsGzip(acceptEncoding)).isFalse();
+    }
+}
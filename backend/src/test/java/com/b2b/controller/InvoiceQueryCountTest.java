@@ -0,0 +1,110 @@
+package com.b2b.controller;
+
+import com.b2b.AbstractIntegrationTest;
+import com.b2b.dto.response.BillingAccountResponse;
+import com.b2b.dto.response.InvoiceResponse;
+import com.b2b.dto.response.StoreResponse;
+import com.b2b.entity.BillingAccount;
+import com.b2b.entity.User;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statement budgets for the invoice read endpoints, measured with cold caches.
+ * A listing must cost the same number of statements whatever its page size;
+ * a lazy association reached per row shows up here as a failed build.
+ */
+@WithMockUser(roles = "ADMIN")
+class InvoiceQueryCountTest extends AbstractIntegrationTest {
+
+    private static final int INVOICES = 12;
+
+    /** Page query, count query, one batch for every row's items, one store snapshot, one pending-balance sum. */
+    private static final long LIST_BUDGET = 5;
+
+    /** Invoice, account and items in one query, plus the store snapshot and the pending-balance sum. */
+    private static final long DETAIL_BUDGET = 3;
+
+    /** Invoices by id, one batch for the items, one store snapshot, one pending-balance sum. */
+    private static final long BATCH_BUDGET = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private StoreResponse store;
+    private List<InvoiceResponse> invoices;
+
+    @BeforeEach
+    void createInvoices() {
+        store = newStore(newUser(User.Role.STORE_MANAGER).getId());
+        BillingAccountResponse account = newAccount(store.getId(), BillingAccount.AccountType.DEBIT, BigDecimal.ZERO);
+        invoices = new ArrayList<>();
+        for (int i = 0; i < INVOICES; i++) {
+            invoices.add(newInvoice(account.getId(), new BigDecimal("10.00"), 2));
+        }
+    }
+
+    private long statementsFor(String url) throws Exception {
+        clearCaches();
+        Statistics statistics = statistics();
+        statistics.clear();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void assertListingWithinBudget(String url) throws Exception {
+        // Newest first, so both pages hold only this test's invoices
+        long small = statementsFor(url + "size=3");
+        long full = statementsFor(url + "size=10");
+
+        assertThat(full).as("statements for %s", url).isLessThanOrEqualTo(LIST_BUDGET);
+        assertThat(full).as("statements must not grow with page size for %s", url).isEqualTo(small);
+    }
+
+    @Test
+    void listAllInvoices() throws Exception {
+        assertListingWithinBudget("/api/billing/invoices?");
+    }
+
+    @Test
+    void listInvoicesByStatus() throws Exception {
+        assertListingWithinBudget("/api/billing/invoices?status=DRAFT&");
+    }
+
+    @Test
+    void listInvoicesByStore() throws Exception {
+        assertListingWithinBudget("/api/billing/invoices/store/" + store.getId() + "?");
+    }
+
+    @Test
+    void invoiceDetail() throws Exception {
+        InvoiceResponse invoice = invoices.get(0);
+
+        assertThat(statementsFor("/api/billing/invoices/" + invoice.getId())).isLessThanOrEqualTo(DETAIL_BUDGET);
+        assertThat(statementsFor("/api/billing/invoices/number/" + invoice.getInvoiceNumber()))
+            .isLessThanOrEqualTo(DETAIL_BUDGET);
+    }
+
+    @Test
+    void batchGetInvoices() throws Exception {
+        String ids = invoices.stream()
+            .limit(10)
+            .map(invoice -> String.valueOf(invoice.getId()))
+            .collect(Collectors.joining(","));
+
+        assertThat(statementsFor("/api/billing/invoices/batch?ids=" + ids)).isLessThanOrEqualTo(BATCH_BUDGET);
+    }
+}
@@ -0,0 +1,78 @@
+package com.b2b.security;
+
+import com.b2b.entity.User;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtUtilsTest {
+
+    // HS512 needs a key of at least 64 bytes
+    private static final String SECRET = "test-secret-0123456789abcdef0123456789abcdef0123456789abcdef0123456789";
+
+    private JwtUtils jwtUtils(boolean verifiedCache) {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60_000);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheEnabled", verifiedCache);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheMaxSize", 100);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+
+    @Test
+    void verifiesOwnTokens() {
+        JwtUtils jwtUtils = jwtUtils(false);
+        String token = jwtUtils.generateTokenFromUsername("alice");
+
+        Claims claims = jwtUtils.verifyJwtToken(token);
+
+        assertThat(claims).isNotNull();
+        assertThat(claims.getSubject()).isEqualTo("alice");
+        assertThat(jwtUtils.verifiedCacheStats()).isNull();
+    }
+
+    @Test
+    void rejectsTamperedAndMalformedTokens() {
+        JwtUtils jwtUtils = jwtUtils(true);
+        String token = jwtUtils.generateTokenFromUsername("alice");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThat(jwtUtils.verifyJwtToken(tampered)).isNull();
+        assertThat(jwtUtils.verifyJwtToken("not-a-token")).isNull();
+        assertThat(jwtUtils.verifyJwtToken(null)).isNull();
+        assertThat(jwtUtils.verifiedCacheStats().getSize()).isZero();
+    }
+
+    @Test
+    void servesRepeatVerificationsFromCache() {
+        JwtUtils jwtUtils = jwtUtils(true);
+        String token = jwtUtils.generateTokenFromUsername("alice");
+
+        Claims first = jwtUtils.verifyJwtToken(token);
+        Claims second = jwtUtils.verifyJwtToken(token);
+
+        assertThat(second).isSameAs(first);
+        assertThat(jwtUtils.verifiedCacheStats().getHits()).isEqualTo(1);
+        assertThat(jwtUtils.verifiedCacheStats().getSize()).isEqualTo(1);
+    }
+
+    @Test
+    void rebuildsPrincipalFromStatelessClaims() {
+        JwtUtils jwtUtils = jwtUtils(false);
+        User user = new User();
+        user.setId(42L);
+        user.setUsername("bob");
+        user.setRole(User.Role.ADMIN);
+        user.setIsActive(true);
+
+        User principal = jwtUtils.principalFromClaims(jwtUtils.verifyJwtToken(jwtUtils.generateTokenWithClaims(user)));
+
+        assertThat(principal.getId()).isEqualTo(42L);
+        assertThat(principal.getUsername()).isEqualTo("bob");
+        assertThat(principal.getRole()).isEqualTo(User.Role.ADMIN);
+        assertThat(principal.getIsActive()).isTrue();
+    }
+}
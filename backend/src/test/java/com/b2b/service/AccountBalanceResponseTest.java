@@ -0,0 +1,41 @@
+package com.b2b.service;
+
+import com.b2b.AbstractIntegrationTest;
+import com.b2b.dto.response.InvoiceResponse;
+import com.b2b.entity.BillingAccount;
+import com.b2b.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Accounts nested in invoice responses report the snapshot plus the ledger entries not yet folded into it. */
+class AccountBalanceResponseTest extends AbstractIntegrationTest {
+
+    private Long storeId;
+    private Long accountId;
+    private InvoiceResponse invoice;
+
+    @BeforeEach
+    void createInvoice() {
+        storeId = newStore(newUser(User.Role.STORE_MANAGER).getId()).getId();
+        accountId = newAccount(storeId, BillingAccount.AccountType.DEBIT, BigDecimal.ZERO).getId();
+        invoice = newInvoice(accountId, new BigDecimal("10.00"), 1);
+    }
+
+    @Test
+    void nestedAccountIncludesPendingLedgerEntries() {
+        billingAccountService.adjustBalance(accountId, new BigDecimal("40.00"));
+        billingAccountService.adjustBalance(accountId, new BigDecimal("-15.50"));
+        BigDecimal expected = new BigDecimal("24.50");
+
+        assertThat(invoiceService.getInvoiceById(invoice.getId()).getBillingAccount().getBalance())
+            .isEqualByComparingTo(expected);
+        assertThat(invoiceService.getInvoicesByStore(storeId, PageRequest.of(0, 10)).getContent())
+            .extracting(response -> response.getBillingAccount().getBalance())
+            .allSatisfy(balance -> assertThat(balance).isEqualByComparingTo(expected));
+    }
+}
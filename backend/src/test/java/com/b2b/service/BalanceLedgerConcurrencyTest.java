@@ -0,0 +1,89 @@
+package com.b2b.service;
+
+import com.b2b.AbstractIntegrationTest;
+import com.b2b.entity.BillingAccount;
+import com.b2b.entity.User;
+import com.b2b.repository.BillingAccountRepository;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hammers one account with ledger writes while the snapshot job folds in a
+ * loop, then checks that no entry was lost or counted twice.
+ */
+class BalanceLedgerConcurrencyTest extends AbstractIntegrationTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceLedgerConcurrencyTest.class);
+
+    private static final int WRITERS = 8;
+    private static final int ADJUSTMENTS_PER_WRITER = 50;
+
+    @Autowired
+    private BalanceSnapshotJob balanceSnapshotJob;
+
+    @Autowired
+    private BillingAccountRepository billingAccountRepository;
+
+    @Test
+    void hotAccountKeepsEveryEntryWhileSnapshotsFold() throws Exception {
+        Long storeId = newStore(newUser(User.Role.STORE_MANAGER).getId()).getId();
+        Long accountId = newAccount(storeId, BillingAccount.AccountType.DEBIT, BigDecimal.ZERO).getId();
+        BigDecimal amount = new BigDecimal("1.25");
+
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Future<?>> writers = new ArrayList<>();
+        try {
+            Future<?> folder = executor.submit(() -> {
+                start.await();
+                while (writing.get()) {
+                    balanceSnapshotJob.snapshot();
+                }
+                return null;
+            });
+            for (int w = 0; w < WRITERS; w++) {
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ADJUSTMENTS_PER_WRITER; i++) {
+                        billingAccountService.adjustBalance(accountId, amount);
+                    }
+                    return null;
+                }));
+            }
+
+            long began = System.nanoTime();
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            long elapsedMillis = (System.nanoTime() - began) / 1_000_000;
+            writing.set(false);
+            folder.get();
+            logger.info("{} ledger writes on one account in {} ms", WRITERS * ADJUSTMENTS_PER_WRITER, elapsedMillis);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        BigDecimal expected = amount.multiply(BigDecimal.valueOf((long) WRITERS * ADJUSTMENTS_PER_WRITER));
+        assertThat(billingAccountService.getBillingAccountById(accountId).getBalance()).isEqualByComparingTo(expected);
+
+        balanceSnapshotJob.snapshot();
+        BillingAccount folded = billingAccountRepository.findById(accountId).orElseThrow();
+        assertThat(folded.getBalance()).isEqualByComparingTo(expected);
+        assertThat(billingAccountService.getBillingAccountById(accountId).getBalance()).isEqualByComparingTo(expected);
+    }
+}
@@ -0,0 +1,146 @@
+package com.b2b.service;
+
+import com.b2b.entity.EmailOutbox;
+import com.b2b.repository.EmailOutboxRepository;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EmailOutboxDispatcherTest {
+
+    @Mock
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Mock
+    private JavaMailSender mailSender;
+
+    @Mock
+    private SchedulerLockService schedulerLockService;
+
+    @Mock
+    private JobRunRegistry jobRunRegistry;
+
+    private EmailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new EmailOutboxDispatcher(emailOutboxRepository, mailSender, schedulerLockService, jobRunRegistry);
+        ReflectionTestUtils.setField(dispatcher, "fromEmail", "noreply@example.com");
+        ReflectionTestUtils.setField(dispatcher, "enabled", true);
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 50);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 6);
+        ReflectionTestUtils.setField(dispatcher, "initialBackoffSeconds", 30L);
+        ReflectionTestUtils.setField(dispatcher, "maxBackoffSeconds", 3600L);
+        ReflectionTestUtils.setField(dispatcher, "lockSeconds", 120L);
+        ReflectionTestUtils.setField(dispatcher, "claimSeconds", 300L);
+    }
+
+    private void leaseGranted() {
+        when(schedulerLockService.tryLock(eq(EmailOutboxDispatcher.JOB_NAME), any(Duration.class))).thenReturn(true);
+        when(schedulerLockService.getNodeId()).thenReturn("node-a");
+        // Not every test gets as far as building messages
+        lenient().when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage(Session.getInstance(new Properties())));
+    }
+
+    private static EmailOutbox entry(long id, String recipient) {
+        EmailOutbox entry = new EmailOutbox(recipient, "Subject " + id, "Body " + id);
+        entry.setId(id);
+        entry.setClaimedBy("node-a:claim");
+        entry.setClaimedUntil(LocalDateTime.now().plusMinutes(5));
+        return entry;
+    }
+
+    @Test
+    void sendsClaimedRowsOverOneConnectionAndMarksThemSent() {
+        leaseGranted();
+        when(emailOutboxRepository.findClaimableIds(eq(EmailOutbox.Status.PENDING), any(), any()))
+            .thenReturn(List.of(1L, 2L));
+        when(emailOutboxRepository.claim(anyCollection(), eq(EmailOutbox.Status.PENDING), anyString(), any(), any()))
+            .thenReturn(2);
+        when(emailOutboxRepository.findByClaimedByOrderById(anyString()))
+            .thenReturn(List.of(entry(1, "a@example.com"), entry(2, "b@example.com")));
+
+        dispatcher.dispatch();
+
+        ArgumentCaptor<MimeMessage[]> sent = ArgumentCaptor.forClass(MimeMessage[].class);
+        verify(mailSender).send(sent.capture());
+        assertThat(sent.getValue()).hasSize(2);
+        verify(emailOutboxRepository).markSent(eq(List.of(1L, 2L)), eq(EmailOutbox.Status.SENT), any());
+        verify(schedulerLockService).unlock(EmailOutboxDispatcher.JOB_NAME);
+    }
+
+    @Test
+    void skipsRowsClaimedByAnotherDispatcher() {
+        leaseGranted();
+        when(emailOutboxRepository.findClaimableIds(eq(EmailOutbox.Status.PENDING), any(), any()))
+            .thenReturn(List.of(1L));
+        when(emailOutboxRepository.claim(anyCollection(), eq(EmailOutbox.Status.PENDING), anyString(), any(), any()))
+            .thenReturn(0);
+
+        dispatcher.dispatch();
+
+        verify(mailSender, never()).send(any(MimeMessage[].class));
+        verify(emailOutboxRepository, never()).findByClaimedByOrderById(anyString());
+        verify(emailOutboxRepository, never()).markSent(any(), any(), any());
+    }
+
+    @Test
+    void releasesClaimAndBacksOffWhenSmtpConnectionFails() {
+        leaseGranted();
+        EmailOutbox entry = entry(7, "c@example.com");
+        when(emailOutboxRepository.findClaimableIds(eq(EmailOutbox.Status.PENDING), any(), any()))
+            .thenReturn(List.of(7L));
+        when(emailOutboxRepository.claim(anyCollection(), eq(EmailOutbox.Status.PENDING), anyString(), any(), any()))
+            .thenReturn(1);
+        when(emailOutboxRepository.findByClaimedByOrderById(anyString())).thenReturn(List.of(entry));
+        doThrow(new MailSendException("connection refused"))
+            .when(mailSender).send(any(MimeMessage[].class));
+
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.dispatch();
+
+        verify(emailOutboxRepository, never()).markSent(any(), any(), any());
+        verify(emailOutboxRepository).saveAll(List.of(entry));
+        assertThat(entry.getAttempts()).isEqualTo(1);
+        assertThat(entry.getStatus()).isEqualTo(EmailOutbox.Status.PENDING);
+        assertThat(entry.getNextAttemptAt()).isAfterOrEqualTo(before.plusSeconds(30));
+        assertThat(entry.getClaimedBy()).isNull();
+        assertThat(entry.getClaimedUntil()).isNull();
+        assertThat(entry.getLastError()).contains("connection refused");
+    }
+
+    @Test
+    void doesNothingWithoutTheLease() {
+        when(schedulerLockService.tryLock(eq(EmailOutboxDispatcher.JOB_NAME), any(Duration.class))).thenReturn(false);
+
+        dispatcher.dispatch();
+
+        verifyNoInteractions(emailOutboxRepository, mailSender);
+    }
+}
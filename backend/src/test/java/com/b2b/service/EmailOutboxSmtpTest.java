@@ -0,0 +1,60 @@
+package com.b2b.service;
+
+import com.b2b.AbstractIntegrationTest;
+import com.b2b.entity.EmailOutbox;
+import com.b2b.repository.EmailOutboxRepository;
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Drains the outbox into a real SMTP server running in-process on the port the test profile points at. */
+class EmailOutboxSmtpTest extends AbstractIntegrationTest {
+
+    private static final int MESSAGES = 5;
+
+    @RegisterExtension
+    static final GreenMailExtension SMTP = new GreenMailExtension(ServerSetupTest.SMTP)
+        .withConfiguration(GreenMailConfiguration.aConfig().withDisabledAuthentication());
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private EmailOutboxDispatcher emailOutboxDispatcher;
+
+    @Test
+    void pendingMessagesAreDeliveredAndMarkedSent() throws Exception {
+        String batch = unique("batch");
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < MESSAGES; i++) {
+            EmailOutbox entry = new EmailOutbox(batch + "-" + i + "@example.com", "Subject " + i, "Body " + i);
+            ids.add(emailOutboxRepository.save(entry).getId());
+        }
+
+        emailOutboxDispatcher.dispatch();
+
+        assertThat(SMTP.waitForIncomingEmail(5000, MESSAGES)).isTrue();
+        List<String> recipients = new ArrayList<>();
+        for (MimeMessage message : SMTP.getReceivedMessages()) {
+            recipients.addAll(Arrays.stream(message.getAllRecipients())
+                .map(Object::toString)
+                .collect(Collectors.toList()));
+        }
+        assertThat(recipients.stream().filter(recipient -> recipient.startsWith(batch + "-")))
+            .hasSize(MESSAGES);
+        assertThat(emailOutboxRepository.findAllById(ids))
+            .extracting(EmailOutbox::getStatus)
+            .containsOnly(EmailOutbox.Status.SENT);
+    }
+}
@@ -0,0 +1,56 @@
+package com.b2b.service;
+
+import com.b2b.AbstractIntegrationTest;
+import com.b2b.dto.request.PaymentCreateRequest;
+import com.b2b.dto.response.InvoiceResponse;
+import com.b2b.entity.BillingAccount;
+import com.b2b.entity.Invoice;
+import com.b2b.entity.Payment;
+import com.b2b.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** An invoice is PAID only once its completed payments cover the total. */
+class InvoicePaidStatusTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Test
+    void markingAnUnpaidInvoiceAsPaidIsRejected() {
+        InvoiceResponse invoice = newInvoice(debitAccount(), new BigDecimal("100.00"), 1);
+
+        assertThatThrownBy(() -> invoiceService.markInvoiceAsPaid(invoice.getId()))
+            .isInstanceOf(IllegalStateException.class);
+        assertThat(invoiceService.getInvoiceById(invoice.getId()).getStatus()).isNotEqualTo(Invoice.Status.PAID);
+    }
+
+    @Test
+    void completingTheLastPaymentMarksTheInvoiceAsPaid() {
+        InvoiceResponse invoice = newInvoice(debitAccount(), new BigDecimal("100.00"), 1);
+
+        PaymentCreateRequest request = new PaymentCreateRequest();
+        request.setInvoiceId(invoice.getId());
+        request.setAmount(invoice.getTotalAmount());
+        request.setPaymentMethod(Payment.PaymentMethod.BANK_TRANSFER);
+        request.setPaymentDate(LocalDate.now());
+        paymentService.completePayment(paymentService.createPayment(request).getId());
+
+        InvoiceResponse paid = invoiceService.getInvoiceById(invoice.getId());
+        assertThat(paid.getStatus()).isEqualTo(Invoice.Status.PAID);
+        assertThat(paid.getPaidAmount()).isEqualByComparingTo(paid.getTotalAmount());
+        // Already PAID, so marking it again is a no-op rather than an error
+        assertThat(invoiceService.markInvoiceAsPaid(invoice.getId()).getStatus()).isEqualTo(Invoice.Status.PAID);
+    }
+
+    private Long debitAccount() {
+        Long storeId = newStore(newUser(User.Role.STORE_MANAGER).getId()).getId();
+        return newAccount(storeId, BillingAccount.AccountType.DEBIT, BigDecimal.ZERO).getId();
+    }
+}
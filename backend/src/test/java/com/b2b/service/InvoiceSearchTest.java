@@ -0,0 +1,87 @@
+package com.b2b.service;
+
+import com.b2b.AbstractIntegrationTest;
+import com.b2b.dto.request.BillingAccountCreateRequest;
+import com.b2b.dto.request.InvoiceCreateRequest;
+import com.b2b.dto.response.BillingAccountResponse;
+import com.b2b.dto.response.InvoiceResponse;
+import com.b2b.entity.BillingAccount;
+import com.b2b.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvoiceSearchTest extends AbstractIntegrationTest {
+
+    private static final int INVOICES = 5;
+
+    private String marker;
+    private Long accountId;
+    private List<InvoiceResponse> invoices;
+
+    @BeforeEach
+    void createInvoices() {
+        Long storeId = newStore(newUser(User.Role.STORE_MANAGER).getId()).getId();
+        marker = unique("zq") + "x";
+
+        BillingAccountCreateRequest request = new BillingAccountCreateRequest();
+        request.setStoreId(storeId);
+        request.setAccountName("Traders " + marker);
+        request.setAccountType(BillingAccount.AccountType.DEBIT);
+        request.setCreditLimit(BigDecimal.ZERO);
+        BillingAccountResponse account = billingAccountService.createBillingAccount(request);
+        accountId = account.getId();
+
+        invoices = new ArrayList<>();
+        for (int i = 0; i < INVOICES; i++) {
+            invoices.add(newInvoice(account.getId(), new BigDecimal("10.00"), 1));
+        }
+        invoices.sort(Comparator.comparing(InvoiceResponse::getId, Comparator.reverseOrder()));
+    }
+
+    @Test
+    void totalsCoverEveryMatchAndPagesFollowTheRanking() {
+        Page<InvoiceResponse> first = invoiceService.searchInvoices(marker, PageRequest.of(0, 2));
+        Page<InvoiceResponse> last = invoiceService.searchInvoices(marker, PageRequest.of(2, 2));
+
+        assertThat(first.getTotalElements()).isEqualTo(INVOICES);
+        assertThat(first.getContent()).extracting(InvoiceResponse::getId)
+            .containsExactly(invoices.get(0).getId(), invoices.get(1).getId());
+        assertThat(last.getContent()).extracting(InvoiceResponse::getId)
+            .containsExactly(invoices.get(4).getId());
+    }
+
+    @Test
+    void invoiceNumberMatchRanksFirst() {
+        InvoiceResponse oldest = invoices.get(INVOICES - 1);
+
+        Page<InvoiceResponse> page = invoiceService.searchInvoices(oldest.getInvoiceNumber(), PageRequest.of(0, 1));
+
+        assertThat(page.getContent()).extracting(InvoiceResponse::getId).containsExactly(oldest.getId());
+    }
+
+    @Test
+    void termDeepInsideALongDescriptionIsFound() {
+        String deepMarker = unique("qz") + "y";
+        InvoiceCreateRequest request = new InvoiceCreateRequest();
+        request.setBillingAccountId(accountId);
+        request.setAmount(new BigDecimal("10.00"));
+        request.setDueDate(LocalDate.now().plusDays(30));
+        request.setDescription("lorem ipsum ".repeat(500) + deepMarker);
+        InvoiceResponse invoice = invoiceService.createInvoice(request);
+
+        Page<InvoiceResponse> page = invoiceService.searchInvoices(deepMarker, PageRequest.of(0, 10));
+
+        assertThat(page.getTotalElements()).isEqualTo(1);
+        assertThat(page.getContent()).extracting(InvoiceResponse::getId).containsExactly(invoice.getId());
+    }
+}
@@ -0,0 +1,87 @@
+package com.b2b.service;
+
+import com.b2b.AbstractIntegrationTest;
+import com.b2b.dto.request.PaymentCreateRequest;
+import com.b2b.dto.response.InvoiceResponse;
+import com.b2b.dto.response.PaymentResponse;
+import com.b2b.entity.BillingAccount;
+import com.b2b.entity.Payment;
+import com.b2b.entity.User;
+import com.b2b.exception.ConcurrentUpdateException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Completes more payments than an invoice can take, all at once, and checks
+ * that the optimistic version check never lets the paid amount drift from
+ * the completed payments or exceed the invoice total.
+ */
+class PaymentConcurrencyTest extends AbstractIntegrationTest {
+
+    private static final int PAYMENTS = 8;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Test
+    void concurrentCompletionsNeverOverpayTheInvoice() throws Exception {
+        Long storeId = newStore(newUser(User.Role.STORE_MANAGER).getId()).getId();
+        Long accountId = newAccount(storeId, BillingAccount.AccountType.DEBIT, BigDecimal.ZERO).getId();
+        InvoiceResponse invoice = newInvoice(accountId, new BigDecimal("100.00"), 1);
+
+        // Each payment is a quarter of the total, so only four of the eight may complete
+        List<Long> paymentIds = new ArrayList<>();
+        for (int i = 0; i < PAYMENTS; i++) {
+            PaymentCreateRequest request = new PaymentCreateRequest();
+            request.setInvoiceId(invoice.getId());
+            request.setAmount(new BigDecimal("25.00"));
+            request.setPaymentMethod(Payment.PaymentMethod.BANK_TRANSFER);
+            request.setPaymentDate(LocalDate.now());
+            paymentIds.add(paymentService.createPayment(request).getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(PAYMENTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (Long paymentId : paymentIds) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        paymentService.completePayment(paymentId);
+                    } catch (IllegalStateException | ConcurrentUpdateException rejected) {
+                        // Lost the race against the balance check or ran out of retries
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        BigDecimal completed = paymentService.getPaymentsByInvoice(invoice.getId()).stream()
+            .filter(payment -> payment.getStatus() == Payment.Status.COMPLETED)
+            .map(PaymentResponse::getAmount)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        InvoiceResponse reloaded = invoiceService.getInvoiceById(invoice.getId());
+
+        assertThat(completed).isPositive();
+        assertThat(reloaded.getPaidAmount()).isEqualByComparingTo(completed);
+        assertThat(reloaded.getPaidAmount()).isLessThanOrEqualTo(reloaded.getTotalAmount());
+    }
+}